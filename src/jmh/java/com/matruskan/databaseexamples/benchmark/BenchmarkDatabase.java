@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.entities.User;
+import com.matruskan.databaseexamples.persistence.BulkLoader;
+import com.matruskan.databaseexamples.persistence.DatabaseMode;
+import com.matruskan.databaseexamples.persistence.HSQLDBServer;
+import com.matruskan.databaseexamples.persistence.HibernateSession;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * HSQLDB database seeded once per trial with {@code authors} Authors, each
+ * with {@code documentsPerAuthor} Documents created in the last day and
+ * {@code followersPerAuthor} Users that favorited it.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    private static final String DATABASE_NAME = "Benchmark";
+
+    @Param({"10", "100"})
+    public int authors;
+
+    @Param({"10", "100"})
+    public int documentsPerAuthor;
+
+    @Param({"10"})
+    public int followersPerAuthor;
+
+    private HSQLDBServer hsqldbServer;
+    private HibernateSession hibernateSession;
+    private Long authorId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (!getMode().isInProcess()) {
+            hsqldbServer = new HSQLDBServer(DATABASE_NAME);
+        }
+        hibernateSession = new HibernateSession(DATABASE_NAME, getMode(), getProperties());
+        List<Author> seededAuthors = createAuthors();
+        new BulkLoader(hibernateSession).load(seededAuthors);
+        createFollowers(seededAuthors);
+        authorId = seededAuthors.get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hibernateSession.close();
+        if (hsqldbServer != null) {
+            hsqldbServer.stop();
+        } else {
+            getMode().shutdown(DATABASE_NAME);
+        }
+        HSQLDBServer.deleteFiles(DATABASE_NAME);
+    }
+
+    public HibernateSession getHibernateSession() {
+        return hibernateSession;
+    }
+
+    public Session openSession() {
+        return hibernateSession.openSession();
+    }
+
+    public Session openReadOnlySession() {
+        return hibernateSession.openReadOnlySession();
+    }
+
+    public StatelessSession openStatelessSession() {
+        return hibernateSession.openStatelessSession();
+    }
+
+    /**
+     * Id of an Author with {@code documentsPerAuthor} Documents and
+     * {@code followersPerAuthor} followers.
+     */
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    protected DatabaseMode getMode() {
+        return DatabaseMode.SERVER;
+    }
+
+    protected Properties getProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(AvailableSettings.SHOW_SQL, "false");
+        return properties;
+    }
+
+    private List<Author> createAuthors() {
+        long now = System.currentTimeMillis();
+        List<Author> seededAuthors = new ArrayList<>();
+        for (int i = 0; i < authors; i++) {
+            Author author = new Author();
+            author.setName("Benchmark Author " + i);
+            Set<Document> documents = new HashSet<>();
+            for (int j = 0; j < documentsPerAuthor; j++) {
+                Document document = new Document();
+                document.setTitle("Benchmark Document " + j);
+                document.setContent("Content of Benchmark Document " + j);
+                document.setDate(new Date(now - j * 60000L));
+                documents.add(document);
+            }
+            author.setDocuments(documents);
+            seededAuthors.add(author);
+        }
+        return seededAuthors;
+    }
+
+    private void createFollowers(List<Author> seededAuthors) {
+        try (Session session = hibernateSession.openSession()) {
+            session.beginTransaction();
+            int pending = 0;
+            for (Author author : seededAuthors) {
+                for (int i = 0; i < followersPerAuthor; i++) {
+                    User user = new User();
+                    user.setFavoriteAuthors(new HashSet<>(Collections.singletonList(author)));
+                    session.save(user);
+                    if (++pending % BulkLoader.DEFAULT_BATCH_SIZE == 0) {
+                        session.flush();
+                        session.clear();
+                    }
+                }
+            }
+            session.getTransaction().commit();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.InefficientComputation;
+import com.matruskan.databaseexamples.InefficientDataAccessing;
+import com.matruskan.databaseexamples.UnnecessaryDataRetrieval;
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.persistence.DatabaseMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs example methods against the same data reached through the HSQLDB
+ * network server and in process, in memory or in files. The second-level
+ * and query caches are ignored, so every call reaches the database.
+ *
+ * The single-query lookups show the fixed cost of a round trip; the
+ * "dont" methods issue many queries per call, so they multiply it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseModeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ModeDatabase extends BenchmarkDatabase {
+
+        @Param({"SERVER", "MEMORY", "FILE"})
+        public DatabaseMode mode;
+
+        @Override
+        protected DatabaseMode getMode() {
+            return mode;
+        }
+    }
+
+    @Benchmark
+    public boolean doDocumentExists(ModeDatabase database) {
+        try (Session session = openSession(database)) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new InefficientComputation(session).doDocumentExists(author);
+        }
+    }
+
+    @Benchmark
+    public Document doMostRecentDocument(ModeDatabase database) {
+        try (Session session = openSession(database)) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new InefficientComputation(session).doMostRecentDocument(author);
+        }
+    }
+
+    @Benchmark
+    public Document dontMostRecentDocument(ModeDatabase database) {
+        try (Session session = openSession(database)) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new InefficientComputation(session).dontMostRecentDocument(author);
+        }
+    }
+
+    @Benchmark
+    public List<String> doGetAuthorNames(ModeDatabase database) {
+        try (Session session = openSession(database)) {
+            return new UnnecessaryDataRetrieval(session).doGetAuthorNames();
+        }
+    }
+
+    @Benchmark
+    public List<String> doListTitlesWithProjection(ModeDatabase database) {
+        try (Session session = openSession(database)) {
+            return new InefficientDataAccessing(session).doListTitlesWithProjection();
+        }
+    }
+
+    @Benchmark
+    public List<String> dontListTitles(ModeDatabase database) {
+        try (Session session = openSession(database)) {
+            return new InefficientDataAccessing(session).dontListTitles();
+        }
+    }
+
+    private Session openSession(ModeDatabase database) {
+        Session session = database.openSession();
+        session.setCacheMode(CacheMode.IGNORE);
+        return session;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.UnnecessaryComputation;
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.entities.User;
+import com.matruskan.databaseexamples.persistence.FetchPlans;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the lookups served by the indexes declared on Document and
+ * User_FavoriteAuthors, with the indexes in place or dropped. For the 10M
+ * Documents case run with
+ * {@code -p authors=1000 -p documentsPerAuthor=10000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+
+    private static final Map<String, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        INDEXES.put("document_author_date", "Document (author_id, date)");
+        INDEXES.put("document_date", "Document (date)");
+        INDEXES.put("user_favorite_authors_author", "User_FavoriteAuthors (author_id)");
+    }
+
+    @State(Scope.Benchmark)
+    public static class Indexes {
+
+        @Param({"true", "false"})
+        public boolean indexed;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkDatabase database) {
+            try (Session session = database.openSession()) {
+                session.doWork(connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+                            statement.execute("drop index " + index.getKey() + " if exists");
+                            if (indexed) {
+                                statement.execute("create index " + index.getKey() + " on " + index.getValue());
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    @Benchmark
+    public Document mostRecentDocument(BenchmarkDatabase database, Indexes indexes) {
+        try (Session session = database.openSession()) {
+            session.setCacheMode(CacheMode.IGNORE);
+            return session.createQuery("select d from Document d"
+                    + " where d.author.id = :authorId order by d.date desc", Document.class)
+                    .setParameter("authorId", database.getAuthorId())
+                    .setMaxResults(1)
+                    .uniqueResult();
+        }
+    }
+
+    @Benchmark
+    public List<Document> authorDocumentsOfTheLastHour(BenchmarkDatabase database, Indexes indexes) {
+        try (Session session = database.openSession()) {
+            return session.createQuery("select d from Document d"
+                    + " where d.author.id = :authorId and d.date > :since", Document.class)
+                    .setParameter("authorId", database.getAuthorId())
+                    .setParameter("since", new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)))
+                    .getResultList();
+        }
+    }
+
+    @Benchmark
+    public Long documentsOfTheLastTenMinutes(BenchmarkDatabase database, Indexes indexes) {
+        try (Session session = database.openSession()) {
+            return session.createQuery("select count(d) from Document d where d.date > :since", Long.class)
+                    .setParameter("since", new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(10)))
+                    .getSingleResult();
+        }
+    }
+
+    @Benchmark
+    public List<User> usersWhoFavoritedAuthor(BenchmarkDatabase database, Indexes indexes) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new UnnecessaryComputation(session).loadUsersWhoFavoritedAuthor(author, FetchPlans.DEFAULT);
+        }
+    }
+}
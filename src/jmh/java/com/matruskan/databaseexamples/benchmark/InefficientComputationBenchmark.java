@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.InefficientComputation;
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the do/dont pairs in {@link InefficientComputation}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InefficientComputationBenchmark {
+
+    @Benchmark
+    public boolean dontDocumentExists(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new InefficientComputation(session).dontDocumentExists(author);
+        }
+    }
+
+    @Benchmark
+    public boolean doDocumentExists(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new InefficientComputation(session).doDocumentExists(author);
+        }
+    }
+
+    @Benchmark
+    public Document dontMostRecentDocument(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new InefficientComputation(session).dontMostRecentDocument(author);
+        }
+    }
+
+    @Benchmark
+    public Document doMostRecentDocument(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            return new InefficientComputation(session).doMostRecentDocument(author);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.InefficientDataAccessing;
+import com.matruskan.databaseexamples.dto.LongIntColumns;
+import com.matruskan.databaseexamples.persistence.CollectionFetchMode;
+import com.matruskan.databaseexamples.persistence.DocumentContentStore;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the do/dont pairs in {@link InefficientDataAccessing}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InefficientDataAccessingBenchmark {
+
+    @Benchmark
+    public List<String> dontListTitles(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).dontListTitles();
+        }
+    }
+
+    @Benchmark
+    public List<String> doListTitles(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).doListTitles();
+        }
+    }
+
+    @Benchmark
+    public List<String> doListTitlesWithProjection(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).doListTitlesWithProjection();
+        }
+    }
+
+    @Benchmark
+    public List<String> doListTitlesWithBatchFetch(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).doListTitles(CollectionFetchMode.BATCH, 50);
+        }
+    }
+
+    @Benchmark
+    public List<String> doListTitlesWithSubselectFetch(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).doListTitles(CollectionFetchMode.SUBSELECT, 1);
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Integer> dontCreateHashForDocumentsContent(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).dontCreateHashForDocumentsContent();
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Integer> doCreateHashForDocumentsContent(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).doCreateHashForDocumentsContent();
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Integer> doReadContentDigests(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).doReadContentDigests();
+        }
+    }
+
+    @Benchmark
+    public LongIntColumns doReadContentDigestColumns(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            return new InefficientDataAccessing(session).doReadContentDigestColumns(InefficientDataAccessing.DEFAULT_FETCH_SIZE);
+        }
+    }
+
+    @Benchmark
+    public void streamHashForDocumentsContent(BenchmarkDatabase database, Blackhole blackhole) {
+        try (Session session = database.openSession()) {
+            new InefficientDataAccessing(session).streamHashForDocumentsContent(
+                    InefficientDataAccessing.DEFAULT_FETCH_SIZE,
+                    (id, hash) -> blackhole.consume(hash));
+        }
+    }
+
+    @Benchmark
+    public void hashContentsAsStreams(BenchmarkDatabase database, Blackhole blackhole) {
+        try (Session session = database.openSession()) {
+            new DocumentContentStore(session).hashAllContents(
+                    InefficientDataAccessing.DEFAULT_FETCH_SIZE,
+                    (id, hash) -> blackhole.consume(hash));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.InefficientDataAccessing;
+import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.persistence.HibernateSession;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the read paths in an ordinary session, a read-only session
+ * and a stateless session from {@link HibernateSession}. Run with the GC
+ * profiler, {@code gc.alloc.rate.norm} shows the memory spent on the
+ * dirty-checking snapshots of the ordinary session.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadOnlySessionBenchmark {
+
+    private static final String DOCUMENTS_QUERY = "select d from Document d join fetch d.author";
+
+    @Benchmark
+    public List<String> doListTitles(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            List<String> titles = new InefficientDataAccessing(session).doListTitles();
+            session.flush();
+            return titles;
+        }
+    }
+
+    @Benchmark
+    public List<String> doListTitlesReadOnly(BenchmarkDatabase database) {
+        try (Session session = database.openReadOnlySession()) {
+            return new InefficientDataAccessing(session).doListTitles();
+        }
+    }
+
+    @Benchmark
+    public List<String> listDocumentTitles(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            List<String> titles = buildTitles(session.createQuery(DOCUMENTS_QUERY, Document.class).getResultList());
+            session.flush();
+            return titles;
+        }
+    }
+
+    @Benchmark
+    public List<String> listDocumentTitlesReadOnly(BenchmarkDatabase database) {
+        try (Session session = database.openReadOnlySession()) {
+            return buildTitles(session.createQuery(DOCUMENTS_QUERY, Document.class).getResultList());
+        }
+    }
+
+    @Benchmark
+    public List<String> listDocumentTitlesStateless(BenchmarkDatabase database) {
+        try (StatelessSession session = database.openStatelessSession()) {
+            return buildTitles(session.createQuery(DOCUMENTS_QUERY, Document.class).getResultList());
+        }
+    }
+
+    private List<String> buildTitles(List<Document> documents) {
+        List<String> titles = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            titles.add(InefficientDataAccessing.buildTitle(document, document.getAuthor()));
+        }
+        return titles;
+    }
+}
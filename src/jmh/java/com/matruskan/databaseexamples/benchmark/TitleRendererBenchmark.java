@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.control.TitleRenderer;
+import com.matruskan.databaseexamples.dto.TitleRow;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of {@link TitleRenderer} against a new SimpleDateFormat and
+ * StringBuilder per title. Scores are per title: with the GC profiler,
+ * {@code gc.alloc.rate.norm} is the number of bytes allocated per title.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TitleRendererBenchmark {
+
+    private static final int TITLES = 100000;
+    private List<TitleRow> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = new ArrayList<>(TITLES);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < TITLES; i++) {
+            rows.add(new TitleRow("Document " + i, new Date(now - i * 60000L), "Author " + i % 100));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TITLES)
+    public void dontRenderWithNewFormatter(Blackhole blackhole) {
+        for (TitleRow row : rows) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+            blackhole.consume(new StringBuilder()
+                    .append(row.getTitle())
+                    .append(" (created by ")
+                    .append(row.getAuthorName())
+                    .append(" on ")
+                    .append(dateFormat.format(Date.from(row.getDate())))
+                    .append(")")
+                    .toString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TITLES)
+    public void doRender(Blackhole blackhole) {
+        TitleRenderer renderer = new TitleRenderer();
+        for (TitleRow row : rows) {
+            blackhole.consume(renderer.render(row));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TITLES)
+    public List<String> doRenderAll() {
+        return TitleRenderer.renderAll(rows);
+    }
+}
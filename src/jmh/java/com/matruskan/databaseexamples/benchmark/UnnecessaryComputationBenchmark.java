@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.benchmark;
+
+import com.matruskan.databaseexamples.UnnecessaryComputation;
+import com.matruskan.databaseexamples.control.DailyNewsletterJob;
+import com.matruskan.databaseexamples.control.DailyNewsletterReport;
+import com.matruskan.databaseexamples.control.NewsletterDispatcher;
+import com.matruskan.databaseexamples.control.NewsletterTransport;
+import com.matruskan.databaseexamples.entities.Author;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the do/dont pairs in {@link UnnecessaryComputation}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnnecessaryComputationBenchmark {
+
+    @Benchmark
+    public void dontSendNewsletterAboutRecentDocuments(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            new UnnecessaryComputation(session).dontSendNewsletterAboutRecentDocuments(author);
+        }
+    }
+
+    @Benchmark
+    public void doSendNewsLetterAboutRecentDocuments(BenchmarkDatabase database) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            new UnnecessaryComputation(session).doSendNewsLetterAboutRecentDocuments(author);
+        }
+    }
+
+    /**
+     * Sends through a transport that takes {@code transportLatencyMillis} per
+     * batch, either on the caller thread or through the worker pool; the
+     * benchmark measures how long the session stays open.
+     */
+    @State(Scope.Benchmark)
+    public static class Delivery {
+
+        @Param({"1"})
+        public int transportLatencyMillis;
+        NewsletterDispatcher inline;
+        NewsletterDispatcher pooled;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            NewsletterTransport transport = (newsletter, recipients) -> {
+                try {
+                    Thread.sleep(transportLatencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            inline = NewsletterDispatcher.inline(transport);
+            pooled = new NewsletterDispatcher(transport);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            inline.close();
+            pooled.close();
+        }
+    }
+
+    @Benchmark
+    public void doSendNewsLetterInline(BenchmarkDatabase database, Delivery delivery) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            new UnnecessaryComputation(session, delivery.inline).doSendNewsLetterAboutRecentDocuments(author);
+        }
+    }
+
+    @Benchmark
+    public void doSendNewsLetterDispatched(BenchmarkDatabase database, Delivery delivery) {
+        try (Session session = database.openSession()) {
+            Author author = session.get(Author.class, database.getAuthorId());
+            new UnnecessaryComputation(session, delivery.pooled).doSendNewsLetterAboutRecentDocuments(author);
+        }
+    }
+
+    @Benchmark
+    public void dontSendDailyNewsletterPerAuthor(BenchmarkDatabase database, Delivery delivery) {
+        try (Session session = database.openSession()) {
+            UnnecessaryComputation instance = new UnnecessaryComputation(session, delivery.inline);
+            List<Author> authors = session.createQuery("select a from Author a", Author.class).getResultList();
+            authors.forEach(instance::doSendNewsLetterAboutRecentDocuments);
+        }
+    }
+
+    @Benchmark
+    public DailyNewsletterReport doSendDailyNewsletterJob(BenchmarkDatabase database, Delivery delivery) {
+        try (Session session = database.openSession()) {
+            return new DailyNewsletterJob(session, delivery.inline).run();
+        }
+    }
+}
@@ -25,6 +25,7 @@ package com.matruskan.databaseexamples;
 
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.persistence.AuthorDocuments;
 import java.util.List;
 import org.hibernate.Session;
 
@@ -45,9 +46,17 @@ import org.hibernate.Session;
  * computation should be moved to the server from the DBMS."
  *
  * This class shows an example of **moving computation to the DBMS**.
+ *
+ * The "do" lookups read what the Author keeps about its Documents, a counter
+ * and a pointer to the latest one, so each one is a primary-key lookup. The
+ * most recent Document is also cacheable: it is kept in the
+ * {@value #LOOKUP_CACHE_REGION} query cache region, keyed by query and
+ * parameters, and is invalidated whenever the Document table is written.
  */
 public class InefficientComputation {
 
+    public static final String LOOKUP_CACHE_REGION = "document.lookups";
+
     private final Session session;
 
     public InefficientComputation(Session session) {
@@ -66,15 +75,18 @@ public class InefficientComputation {
     }
 
     public boolean doDocumentExists(Author author) {
-        String query = "select count(d) from Document d"
-                + " where d.author = :author";
-        Long count = session.createQuery(query, Long.class)
-                .setParameter("author", author)
-                .uniqueResult();
-        boolean documentExists = count > 0;
+        boolean documentExists = doCountDocuments(author) > 0;
         return documentExists;
     }
 
+    /**
+     * Reads the document counter of the Author by primary key, instead of
+     * counting its Documents.
+     */
+    public long doCountDocuments(Author author) {
+        return new AuthorDocuments(session).count(author);
+    }
+
     public Document dontMostRecentDocument(Author author) {
         String query = "select d from Document d"
                 + " where d.author = :author";
@@ -87,14 +99,18 @@ public class InefficientComputation {
         return recentDocument;
     }
 
+    /**
+     * Follows the latest Document pointer kept on the Author, instead of
+     * sorting its Documents by date.
+     */
     public Document doMostRecentDocument(Author author) {
-        String query = "select d from Document d"
-                + " where d.author = :author"
-                + " order by d.date desc";
+        String query = "select d from Document d, Author a"
+                + " where a = :author and d.id = a.latestDocumentId";
         Document recentDocument = session
                 .createQuery(query, Document.class)
                 .setParameter("author", author)
-                .setMaxResults(1)
+                .setCacheable(true)
+                .setCacheRegion(LOOKUP_CACHE_REGION)
                 .uniqueResult();
         return recentDocument;
     }
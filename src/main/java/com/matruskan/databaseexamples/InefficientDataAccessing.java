@@ -23,16 +23,30 @@
  */
 package com.matruskan.databaseexamples;
 
+import com.matruskan.databaseexamples.control.TitleRenderer;
+import com.matruskan.databaseexamples.dto.LongIntColumns;
+import com.matruskan.databaseexamples.dto.LongIntConsumer;
+import com.matruskan.databaseexamples.dto.TitlePage;
+import com.matruskan.databaseexamples.dto.TitlePageToken;
+import com.matruskan.databaseexamples.dto.TitleRow;
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
-import java.text.SimpleDateFormat;
+import com.matruskan.databaseexamples.persistence.AssociationLoader;
+import com.matruskan.databaseexamples.persistence.CollectionFetchMode;
+import com.matruskan.databaseexamples.persistence.ColumnarReader;
+import com.matruskan.databaseexamples.persistence.CriteriaFilter;
+import com.matruskan.databaseexamples.persistence.FetchPlans;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.query.Query;
 
 /**
  * Example 3: Inefficient Data Accessing
@@ -62,6 +76,10 @@ import org.hibernate.Session;
  */
 public class InefficientDataAccessing {
 
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final String CONTENT_DIGESTS = "select d.id, d.contentDigest,"
+            + " case when d.contentDigest is null then d.content end from Document d";
+
     private final Session session;
 
     public InefficientDataAccessing(Session session) {
@@ -100,9 +118,105 @@ public class InefficientDataAccessing {
         return titles;
     }
 
+    /**
+     * Same as {@link #doListTitles()}, but reads only the title, date and
+     * author name columns into {@link TitleRow}s, so no entity is loaded
+     * into the session.
+     */
+    public List<String> doListTitlesWithProjection() {
+        String query = "select new " + TitleRow.class.getName() + "(d.title, d.date, a.name)"
+                + " from Document d join d.author a";
+        List<TitleRow> rows = session
+                .createQuery(query, TitleRow.class)
+                .getResultList();
+        return TitleRenderer.renderAll(rows);
+    }
+
+    /**
+     * Same as {@link #doListTitles()}, but loads the Documents in a separate
+     * query per {@code batchSize} Authors, or in a single query with a
+     * subselect, instead of one join fetch over every Author.
+     */
+    public List<String> doListTitles(CollectionFetchMode fetchMode, int batchSize) {
+        List<String> titles = new ArrayList<>();
+        List<Author> authors = new AssociationLoader(session)
+                .loadDocuments(CriteriaFilter.all(), fetchMode, batchSize);
+        for (Author author : authors) {
+            for (Document document : author.getDocuments()) {
+                String title = buildTitle(document, author);
+                titles.add(title);
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * Lists the titles of every Author, loading the Authors with the given
+     * fetch plan: {@link FetchPlans#AUTHOR_DOCUMENTS} loads the Documents
+     * with the Authors (like {@link #doListTitles()}), while
+     * {@link FetchPlans#DEFAULT} loads them lazily (like
+     * {@link #dontListTitles()}).
+     */
+    public List<String> listTitles(String fetchPlan) {
+        List<String> titles = new ArrayList<>();
+        String query = "select distinct a from Author a";
+        List<Author> authors = FetchPlans
+                .apply(session, session.createQuery(query, Author.class), fetchPlan)
+                .getResultList();
+        for (Author author : authors) {
+            for (Document document : author.getDocuments()) {
+                String title = buildTitle(document, author);
+                titles.add(title);
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * Lists the first page of titles, ordered by author and document id.
+     */
+    public TitlePage listTitlePage(int pageSize) {
+        return listTitlePage(null, pageSize);
+    }
+
+    /**
+     * Lists the titles after the given token, ordered by author and document
+     * id. The page starts with a seek predicate instead of an offset, so every
+     * page costs the same, no matter how deep it is.
+     *
+     * @param after token of the previous page, or null for the first page
+     */
+    public TitlePage listTitlePage(TitlePageToken after, int pageSize) {
+        String query = "select d from Document d join fetch d.author a";
+        if (after != null) {
+            query += " where a.id > :authorId"
+                    + " or (a.id = :authorId and d.id > :documentId)";
+        }
+        query += " order by a.id, d.id";
+        Query<Document> documentQuery = session
+                .createQuery(query, Document.class)
+                .setMaxResults(pageSize);
+        if (after != null) {
+            documentQuery
+                    .setParameter("authorId", after.getAuthorId())
+                    .setParameter("documentId", after.getDocumentId());
+        }
+        List<Document> documents = documentQuery.getResultList();
+        List<String> titles = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            titles.add(buildTitle(document, document.getAuthor()));
+        }
+        TitlePageToken next = null;
+        if (documents.size() == pageSize) {
+            Document last = documents.get(documents.size() - 1);
+            next = new TitlePageToken(last.getAuthor().getId(), last.getId());
+        }
+        return new TitlePage(titles, next);
+    }
+
     public Map<Long, Integer> dontCreateHashForDocumentsContent() {
         Map<Long, Integer> hashes = new HashMap<>();
-        String query = "select d from Document d";
+        String query = "select d from Document d fetch all properties";
         List<Document> documents = session
                 .createQuery(query, Document.class)
                 .getResultList();
@@ -126,16 +240,85 @@ public class InefficientDataAccessing {
         return hashes;
     }
 
+    /**
+     * Same as {@link #doCreateHashForDocumentsContent()}, but streams the rows
+     * through a forward-only cursor instead of materializing them, so memory
+     * use does not grow with the Document table.
+     *
+     * @param fetchSize number of rows the JDBC driver fetches per round trip
+     * @param consumer receives the id and content hash of each Document
+     */
+    public void streamHashForDocumentsContent(int fetchSize, LongIntConsumer consumer) {
+        String query = "select d.id, d.content from Document d";
+        try (ScrollableResults results = session
+                .createQuery(query, Object[].class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                int hashCodeForContent = Objects.hashCode(results.get(1));
+                consumer.accept((Long) results.get(0), hashCodeForContent);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #doCreateHashForDocumentsContent()}, but reads the
+     * digest computed when each Document was written, so the content only
+     * leaves the database for Documents that have no digest.
+     */
+    public Map<Long, Integer> doReadContentDigests() {
+        Map<Long, Integer> hashes = new HashMap<>();
+        List<Object[]> objects = session
+                .createQuery(CONTENT_DIGESTS, Object[].class)
+                .getResultList();
+        for (Object[] object : objects) {
+            hashes.put((Long) object[0], contentDigest(object));
+        }
+        return hashes;
+    }
+
+    /**
+     * Same as {@link #streamHashForDocumentsContent(int, LongIntConsumer)},
+     * but reads the digest computed when each Document was written.
+     */
+    public void streamContentDigests(int fetchSize, LongIntConsumer consumer) {
+        try (ScrollableResults results = session
+                .createQuery(CONTENT_DIGESTS, Object[].class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Object[] row = results.get();
+                consumer.accept((Long) row[0], contentDigest(row));
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #doReadContentDigests()}, but reads the rows into
+     * primitive columns of ids and digests instead of a boxed Map.
+     */
+    public LongIntColumns doReadContentDigestColumns(int fetchSize) {
+        return ColumnarReader.readLongInt(session.createQuery(CONTENT_DIGESTS, Object[].class), fetchSize,
+                InefficientDataAccessing::contentDigest);
+    }
+
+    /**
+     * Documents written before the digest existed have none, so their content
+     * is hashed instead.
+     */
+    private static int contentDigest(Object[] row) {
+        return row[1] != null ? (Integer) row[1] : Objects.hashCode(row[2]);
+    }
+
     public static String buildTitle(Document document, Author author) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("YYYY-MM-dd");
-        String title = new StringBuilder()
-                .append(document.getTitle())
-                .append(" (created by ")
-                .append(author.getName())
-                .append(" on ")
-                .append(dateFormat.format(document.getDate()))
-                .append(")")
-                .toString();
-        return title;
+        return TitleRenderer.forCurrentThread().render(document.getTitle(), document.getDate(), author.getName());
+    }
+
+    public static String buildTitle(TitleRow row) {
+        return TitleRenderer.forCurrentThread().render(row);
     }
 }
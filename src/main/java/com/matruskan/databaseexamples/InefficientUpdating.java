@@ -0,0 +1,305 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.persistence.AuthorDocuments;
+import com.matruskan.databaseexamples.persistence.CriteriaFilter;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Example 5: Inefficient Updating
+ *
+ * "**Inefficient updating**. Like the “N+1” problem, developers would issue N
+ * queries to update N records separately rather than merging them into one
+ * update."
+ *
+ * This class shows examples of **inefficient updating**: the "dont" methods
+ * load every Document and change them one by one, issuing one UPDATE or
+ * DELETE per Document, while the "do" methods issue a single bulk statement,
+ * or one statement per batch of rows when every row gets a different value.
+ * The Documents are chosen by a {@link CriteriaFilter}; the methods that take
+ * an Author work on the Documents written by it.
+ *
+ * Bulk statements bypass the persistence context and the event listeners, so
+ * the "do" methods first read the ids and Authors of the Documents they will
+ * change. With them they adjust the document counters and latest Document
+ * pointers of those Authors, detach those Documents if they are managed, and
+ * reload the documents collections of those Authors if they are initialized.
+ * Clearing the whole session instead would also detach the entities the
+ * caller holds that the statement did not touch. Must be called inside a
+ * transaction.
+ */
+public class InefficientUpdating {
+
+    private final Session session;
+
+    public InefficientUpdating(Session session) {
+        this.session = session;
+    }
+
+    public void dontRedateDocuments(Author author, Date date) {
+        dontRedateDocuments(writtenBy(author), date);
+    }
+
+    public void dontRedateDocuments(CriteriaFilter<Document> filter, Date date) {
+        for (Document document : loadDocuments(filter)) {
+            document.setDate(date);
+        }
+        session.flush();
+    }
+
+    public int doRedateDocuments(Author author, Date date) {
+        return doRedateDocuments(writtenBy(author), date);
+    }
+
+    public int doRedateDocuments(CriteriaFilter<Document> filter, Date date) {
+        AffectedDocuments affected = findAffected(filter);
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaUpdate<Document> update = builder.createCriteriaUpdate(Document.class);
+        Root<Document> document = update.from(Document.class);
+        update.set(document.<Date>get("date"), date)
+                .set(document.<Long>get("version"), builder.sum(document.<Long>get("version"), 1L))
+                .where(filter.toPredicate(document, builder));
+        int updated = session.createQuery(update).executeUpdate();
+        AuthorDocuments authorDocuments = new AuthorDocuments(session);
+        for (Long authorId : affected.countsByAuthor.keySet()) {
+            authorDocuments.adjust(authorId, 0);
+        }
+        detachDocuments(affected.documentIds);
+        return updated;
+    }
+
+    public void dontReassignDocuments(Author from, Author to) {
+        dontReassignDocuments(writtenBy(from), to);
+    }
+
+    public void dontReassignDocuments(CriteriaFilter<Document> filter, Author to) {
+        for (Document document : loadDocuments(filter)) {
+            document.setAuthor(to);
+        }
+        session.flush();
+    }
+
+    public int doReassignDocuments(Author from, Author to) {
+        return doReassignDocuments(writtenBy(from), to);
+    }
+
+    public int doReassignDocuments(CriteriaFilter<Document> filter, Author to) {
+        AffectedDocuments affected = findAffected(filter);
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaUpdate<Document> update = builder.createCriteriaUpdate(Document.class);
+        Root<Document> document = update.from(Document.class);
+        update.set(document.<Author>get("author"), to)
+                .set(document.<Long>get("version"), builder.sum(document.<Long>get("version"), 1L))
+                .where(filter.toPredicate(document, builder));
+        int updated = session.createQuery(update).executeUpdate();
+        SortedMap<Long, Long> deltas = new TreeMap<>();
+        for (Map.Entry<Long, Long> count : affected.countsByAuthor.entrySet()) {
+            deltas.put(count.getKey(), -count.getValue());
+        }
+        deltas.merge(to.getId(), (long) updated, Long::sum);
+        AuthorDocuments authorDocuments = new AuthorDocuments(session);
+        for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+            authorDocuments.adjust(delta.getKey(), delta.getValue());
+        }
+        detachDocuments(affected.documentIds);
+        refreshDocumentsOf(deltas.keySet());
+        return updated;
+    }
+
+    public void dontDeleteDocuments(Author author) {
+        dontDeleteDocuments(writtenBy(author));
+    }
+
+    public void dontDeleteDocuments(CriteriaFilter<Document> filter) {
+        for (Document document : loadDocuments(filter)) {
+            session.delete(document);
+        }
+        session.flush();
+    }
+
+    public int doDeleteDocuments(Author author) {
+        return doDeleteDocuments(writtenBy(author));
+    }
+
+    public int doDeleteDocuments(CriteriaFilter<Document> filter) {
+        AffectedDocuments affected = findAffected(filter);
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaDelete<Document> delete = builder.createCriteriaDelete(Document.class);
+        Root<Document> document = delete.from(Document.class);
+        delete.where(filter.toPredicate(document, builder));
+        int deleted = session.createQuery(delete).executeUpdate();
+        AuthorDocuments authorDocuments = new AuthorDocuments(session);
+        for (Map.Entry<Long, Long> count : affected.countsByAuthor.entrySet()) {
+            authorDocuments.adjust(count.getKey(), -count.getValue());
+        }
+        detachDocuments(affected.documentIds);
+        refreshDocumentsOf(affected.countsByAuthor.keySet());
+        return deleted;
+    }
+
+    public void dontRenameDocuments(Map<Long, String> titles) {
+        for (Map.Entry<Long, String> title : titles.entrySet()) {
+            Document document = session.get(Document.class, title.getKey());
+            document.setTitle(title.getValue());
+        }
+        session.flush();
+    }
+
+    /**
+     * Every Document gets a different title, so there is no single value to
+     * set for all of them; each UPDATE renames up to {@code batchSize}
+     * Documents, picking the title of each row with a CASE on its id.
+     */
+    public int doRenameDocuments(Map<Long, String> titles, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        List<Map.Entry<Long, String>> renames = new ArrayList<>(titles.entrySet());
+        int updated = 0;
+        for (int from = 0; from < renames.size(); from += batchSize) {
+            List<Map.Entry<Long, String>> batch = renames.subList(from, Math.min(from + batchSize, renames.size()));
+            StringBuilder sql = new StringBuilder("update Document set title = case id");
+            for (int i = 0; i < batch.size(); i++) {
+                sql.append(" when :id").append(i)
+                        .append(" then cast(:title").append(i).append(" as varchar(255))");
+            }
+            sql.append(" end, version = version + 1 where id in (:ids)");
+            NativeQuery<?> query = session.createNativeQuery(sql.toString())
+                    .addSynchronizedEntityClass(Document.class);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                query.setParameter("id" + i, batch.get(i).getKey());
+                query.setParameter("title" + i, batch.get(i).getValue());
+                ids.add(batch.get(i).getKey());
+            }
+            updated += query.setParameterList("ids", ids).executeUpdate();
+        }
+        detachDocuments(titles.keySet());
+        return updated;
+    }
+
+    public static CriteriaFilter<Document> writtenBy(Author author) {
+        Long authorId = author.getId();
+        return (document, builder) -> builder.equal(document.get("author").get("id"), authorId);
+    }
+
+    private List<Document> loadDocuments(CriteriaFilter<Document> filter) {
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaQuery<Document> query = builder.createQuery(Document.class);
+        Root<Document> document = query.from(Document.class);
+        query.select(document).where(filter.toPredicate(document, builder));
+        return session.createQuery(query).getResultList();
+    }
+
+    /**
+     * Reads the id and Author id of the Documents a bulk statement is about
+     * to change, in one query.
+     */
+    private AffectedDocuments findAffected(CriteriaFilter<Document> filter) {
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Document> document = query.from(Document.class);
+        query.multiselect(document.get("id"), document.get("author").get("id"))
+                .where(filter.toPredicate(document, builder));
+        AffectedDocuments affected = new AffectedDocuments();
+        for (Tuple row : session.createQuery(query).getResultList()) {
+            affected.documentIds.add(row.get(0, Long.class));
+            Long authorId = row.get(1, Long.class);
+            if (authorId != null) {
+                affected.countsByAuthor.merge(authorId, 1L, Long::sum);
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Detaches the given Documents that are managed, so they are loaded again
+     * with the values written by a bulk statement.
+     */
+    private void detachDocuments(Collection<Long> documentIds) {
+        for (Long documentId : documentIds) {
+            Document document = managed(Document.class, documentId);
+            if (document != null) {
+                session.detach(document);
+            }
+        }
+    }
+
+    /**
+     * Reloads the initialized documents collections of the given Authors.
+     * Author.documents is the inverse side, so replacing its elements issues
+     * no SQL. With bytecode enhancement, the getter would load a collection
+     * that was never read, so that is checked first.
+     */
+    private void refreshDocumentsOf(Collection<Long> authorIds) {
+        for (Long authorId : authorIds) {
+            Author author = managed(Author.class, authorId);
+            if (author != null && Hibernate.isPropertyInitialized(author, "documents")
+                    && Hibernate.isInitialized(author.getDocuments())) {
+                List<Document> documents = loadDocuments(writtenBy(author));
+                author.getDocuments().clear();
+                author.getDocuments().addAll(documents);
+            }
+        }
+    }
+
+    /**
+     * @return the instance the session manages with that id, or null, without
+     * loading it
+     */
+    private <T> T managed(Class<T> entityClass, Serializable id) {
+        SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+        PersistenceContext persistenceContext = sessionImplementor.getPersistenceContext();
+        Object entity = persistenceContext.getEntity(sessionImplementor.generateEntityKey(id,
+                sessionImplementor.getFactory().getMetamodel().entityPersister(entityClass)));
+        return entityClass.cast(entity);
+    }
+
+    private static class AffectedDocuments {
+
+        private final List<Long> documentIds = new ArrayList<>();
+        private final SortedMap<Long, Long> countsByAuthor = new TreeMap<>();
+    }
+}
@@ -23,10 +23,13 @@
  */
 package com.matruskan.databaseexamples;
 
-import com.matruskan.databaseexamples.control.Newsletter;
+import com.matruskan.databaseexamples.control.NewsletterDispatcher;
+import com.matruskan.databaseexamples.control.NewsletterRenderCache;
+import com.matruskan.databaseexamples.control.RenderedNewsletter;
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
 import com.matruskan.databaseexamples.entities.User;
+import com.matruskan.databaseexamples.persistence.FetchPlans;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
@@ -55,49 +58,66 @@ import org.hibernate.Session;
 public class UnnecessaryComputation {
 
     private final Session session;
+    private final NewsletterDispatcher dispatcher;
+    private final NewsletterRenderCache renderCache;
 
+    /**
+     * Newsletters are sent on the caller thread and discarded.
+     */
     public UnnecessaryComputation(Session session) {
+        this(session, NewsletterDispatcher.inline((newsletter, recipients) -> { }));
+    }
+
+    /**
+     * @param dispatcher sends the Newsletters; the caller closes it
+     */
+    public UnnecessaryComputation(Session session, NewsletterDispatcher dispatcher) {
+        this(session, dispatcher, new NewsletterRenderCache());
+    }
+
+    /**
+     * @param renderCache may be shared, so a Newsletter is rendered once
+     * across runs
+     */
+    public UnnecessaryComputation(Session session, NewsletterDispatcher dispatcher, NewsletterRenderCache renderCache) {
         this.session = session;
+        this.dispatcher = dispatcher;
+        this.renderCache = renderCache;
     }
 
     public void dontSendNewsletterAboutRecentDocuments(Author author) {
-        List<Document> yesterdayDocuments = loadYesterdayDocuments(author);
-        yesterdayDocuments.forEach(this::sendNewsletter);
+        List<RenderedNewsletter> yesterdayNewsletters = renderYesterdayNewsletters(author);
+        yesterdayNewsletters.forEach(newsletter -> this.sendNewsletter(newsletter, author));
     }
 
-    private void sendNewsletter(Document document) {
-        Author author = document.getAuthor();
+    private void sendNewsletter(RenderedNewsletter newsletter, Author author) {
         List<User> usersThatFavoritedAuthor = loadUsersWhoFavoritedAuthor(author);
-        new Newsletter()
-                .withTitle("New Document from " + author.getName() + ": " + document.getTitle())
-                .addHeader(author.getImgUrl(), author.getName() + " created a new Document: " + document.getTitle())
-                .addContent(document.getContent())
-                .addLink("Open Document", document)
-                .sendTo(usersThatFavoritedAuthor);
+        dispatcher.dispatch(newsletter, usersThatFavoritedAuthor);
     }
 
     public void doSendNewsLetterAboutRecentDocuments(Author author) {
-        List<Document> yesterdayDocuments = loadYesterdayDocuments(author);
+        List<RenderedNewsletter> yesterdayNewsletters = renderYesterdayNewsletters(author);
         List<User> usersThatFavoritedAuthor = loadUsersWhoFavoritedAuthor(author);
-        yesterdayDocuments.forEach(document -> this.sendNewsletter(document, usersThatFavoritedAuthor));
+        yesterdayNewsletters.forEach(newsletter -> dispatcher.dispatch(newsletter, usersThatFavoritedAuthor));
     }
 
-    private void sendNewsletter(Document document, List<User> users) {
-        Author author = document.getAuthor();
-        new Newsletter()
-                .withTitle("New Document from " + author.getName() + ": " + document.getTitle())
-                .addHeader(author.getImgUrl(), author.getName() + " created a new Document: " + document.getTitle())
-                .addContent(document.getContent())
-                .addLink("Open Document", document)
-                .sendTo(users);
+    /**
+     * The Documents are loaded without their content, which is read only for
+     * the Newsletters that are not in the render cache.
+     */
+    private List<RenderedNewsletter> renderYesterdayNewsletters(Author author) {
+        return renderCache.getAll(session, loadYesterdayDocuments(author, FetchPlans.DEFAULT));
     }
 
-    private List<Document> loadYesterdayDocuments(Author author) {
+    /**
+     * @param fetchPlan one of the Document {@link FetchPlans}
+     */
+    public List<Document> loadYesterdayDocuments(Author author, String fetchPlan) {
         String query = "select d from Document d"
                 + " where d.author = :author"
                 + " and d.date > :yesterday";
-        List<Document> documentsOfTheWeek = session
-                .createQuery(query, Document.class)
+        List<Document> documentsOfTheWeek = FetchPlans
+                .apply(session, session.createQuery(query, Document.class), fetchPlan)
                 .setParameter("author", author)
                 .setParameter("yesterday", getYesterday())
                 .getResultList();
@@ -105,9 +125,17 @@ public class UnnecessaryComputation {
     }
 
     private List<User> loadUsersWhoFavoritedAuthor(Author author) {
-        String query = "select u from User u join u.favoriteAuthors a"
+        return loadUsersWhoFavoritedAuthor(author, FetchPlans.DEFAULT);
+    }
+
+    /**
+     * @param fetchPlan one of the User {@link FetchPlans}
+     */
+    public List<User> loadUsersWhoFavoritedAuthor(Author author, String fetchPlan) {
+        String query = "select distinct u from User u join u.favoriteAuthors a"
                 + " where a = :author";
-        List<User> users = session.createQuery(query, User.class)
+        List<User> users = FetchPlans
+                .apply(session, session.createQuery(query, User.class), fetchPlan)
                 .setParameter("author", author)
                 .getResultList();
         return users;
@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import com.matruskan.databaseexamples.entities.Document;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the Newsletters about the Documents created since yesterday to the
+ * followers of every Author.
+ *
+ * Calling {@code doSendNewsLetterAboutRecentDocuments(Author)} once per
+ * Author issues two queries per Author. This job issues two queries in
+ * total: one for the recent Documents with their Authors, and one for the
+ * author→follower mapping of the Authors that have recent Documents. Both
+ * are grouped by author id in memory. The content of the Documents is read,
+ * in one more query, only for the Newsletters not in the render cache.
+ */
+public class DailyNewsletterJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DailyNewsletterJob.class);
+    private final Session session;
+    private final NewsletterDispatcher dispatcher;
+    private final NewsletterRenderCache renderCache;
+
+    public DailyNewsletterJob(Session session, NewsletterDispatcher dispatcher) {
+        this(session, dispatcher, new NewsletterRenderCache());
+    }
+
+    public DailyNewsletterJob(Session session, NewsletterDispatcher dispatcher, NewsletterRenderCache renderCache) {
+        this.session = session;
+        this.dispatcher = dispatcher;
+        this.renderCache = renderCache;
+    }
+
+    public DailyNewsletterReport run() {
+        return run(Date.from(LocalDate.now()
+                .minusDays(1)
+                .atStartOfDay(ZoneId.systemDefault())
+                .toInstant()));
+    }
+
+    /**
+     * @param since only Documents dated after it are sent
+     */
+    public DailyNewsletterReport run(Date since) {
+        long start = System.nanoTime();
+        List<Document> documents = loadDocuments(since);
+        List<Object[]> followerRows = loadFollowers(since);
+        long queries = 2;
+        Map<Long, List<Recipient>> followersByAuthor = new HashMap<>();
+        for (Object[] row : followerRows) {
+            followersByAuthor
+                    .computeIfAbsent((Long) row[0], authorId -> new ArrayList<>())
+                    .add(new Recipient((Long) row[1], (String) row[2]));
+        }
+        List<Document> followed = new ArrayList<>();
+        for (Document document : documents) {
+            if (followersByAuthor.containsKey(document.getAuthor().getId())) {
+                followed.add(document);
+            }
+        }
+        List<Long> stale = renderCache.getStaleIds(followed);
+        Map<Long, String> contents = Collections.emptyMap();
+        if (!stale.isEmpty()) {
+            contents = NewsletterRenderCache.loadContents(session, stale);
+            queries++;
+        }
+        List<RenderedNewsletter> newsletters = renderCache.getAll(followed, contents);
+        long deliveries = 0;
+        for (int i = 0; i < followed.size(); i++) {
+            List<Recipient> followers = followersByAuthor.get(followed.get(i).getAuthor().getId());
+            dispatcher.dispatchToRecipients(newsletters.get(i), followers);
+            deliveries += followers.size();
+        }
+        DailyNewsletterReport report = new DailyNewsletterReport(queries, documents.size(),
+                followerRows.size(), deliveries, System.nanoTime() - start);
+        LOGGER.info("Daily newsletter finished: {}", report);
+        return report;
+    }
+
+    private List<Document> loadDocuments(Date since) {
+        String query = "select d from Document d join fetch d.author"
+                + " where d.date > :since";
+        return session.createQuery(query, Document.class)
+                .setParameter("since", since)
+                .setReadOnly(true)
+                .getResultList();
+    }
+
+    /**
+     * @return rows of (author id, user id, username)
+     */
+    private List<Object[]> loadFollowers(Date since) {
+        String query = "select a.id, u.id, account.username"
+                + " from User u join u.favoriteAuthors a left join u.account account"
+                + " where a.id in (select d.author.id from Document d where d.date > :since)";
+        return session.createQuery(query, Object[].class)
+                .setParameter("since", since)
+                .getResultList();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries issued and rows read by a {@link DailyNewsletterJob} run.
+ */
+public class DailyNewsletterReport {
+
+    private final long queries;
+    private final long documents;
+    private final long followerRows;
+    private final long deliveries;
+    private final long elapsedNanos;
+
+    public DailyNewsletterReport(long queries, long documents, long followerRows, long deliveries, long elapsedNanos) {
+        this.queries = queries;
+        this.documents = documents;
+        this.followerRows = followerRows;
+        this.deliveries = deliveries;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return queries issued by the run itself: 2, plus 1 when the content of
+     * some Documents had to be read for rendering
+     */
+    public long getQueries() {
+        return queries;
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @return rows of the author→follower mapping
+     */
+    public long getFollowerRows() {
+        return followerRows;
+    }
+
+    public long getRows() {
+        return documents + followerRows;
+    }
+
+    /**
+     * @return Newsletters handed to the dispatcher, one per document and
+     * follower
+     */
+    public long getDeliveries() {
+        return deliveries;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d queries, %d documents, %d follower rows, %d deliveries in %d ms",
+                queries, documents, followerRows, deliveries, getElapsedMillis());
+    }
+}
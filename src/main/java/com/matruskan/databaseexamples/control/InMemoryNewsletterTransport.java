@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps every delivered Newsletter in an inbox per user, in place of a real
+ * mail server.
+ */
+public class InMemoryNewsletterTransport implements NewsletterTransport {
+
+    private final Map<Long, Queue<RenderedNewsletter>> inboxes = new ConcurrentHashMap<>();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder deliveries = new LongAdder();
+
+    @Override
+    public void send(RenderedNewsletter newsletter, List<Recipient> recipients) {
+        for (Recipient recipient : recipients) {
+            inboxes.computeIfAbsent(recipient.getUserId(), userId -> new ConcurrentLinkedQueue<>())
+                    .add(newsletter);
+        }
+        batches.increment();
+        deliveries.add(recipients.size());
+    }
+
+    public List<RenderedNewsletter> getInbox(long userId) {
+        Queue<RenderedNewsletter> inbox = inboxes.get(userId);
+        return inbox == null ? Collections.emptyList() : new ArrayList<>(inbox);
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getDeliveryCount() {
+        return deliveries.sum();
+    }
+}
@@ -23,35 +23,153 @@
  */
 package com.matruskan.databaseexamples.control;
 
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
 import com.matruskan.databaseexamples.entities.LinkableEntity;
 import com.matruskan.databaseexamples.entities.User;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import org.hibernate.Hibernate;
 
 /**
  *
  */
 public class Newsletter {
 
+    private String title;
+    private String imgUrl;
+    private String headerText;
+    private final List<String> contents = new ArrayList<>();
+    private final List<Link> links = new ArrayList<>();
+
     public Newsletter() {
     }
 
+    /**
+     * The Newsletter announcing a new Document to its Author's followers.
+     */
+    public static Newsletter about(Document document) {
+        return about(document, document.getContent());
+    }
+
+    /**
+     * @param content the content of the Document, read separately
+     */
+    public static Newsletter about(Document document, String content) {
+        Author author = document.getAuthor();
+        return new Newsletter()
+                .withTitle("New Document from " + author.getName() + ": " + document.getTitle())
+                .addHeader(author.getImgUrl(), author.getName() + " created a new Document: " + document.getTitle())
+                .addContent(content)
+                .addLink("Open Document", document);
+    }
+
     public Newsletter withTitle(String title) {
+        this.title = title;
         return this;
     }
 
     public Newsletter addHeader(String imgUrl, String headerText) {
+        this.imgUrl = imgUrl;
+        this.headerText = headerText;
         return this;
     }
 
     public Newsletter addContent(String content) {
+        contents.add(content);
         return this;
     }
 
+    /**
+     * Only the type and id of the entity are kept, so the Newsletter can be
+     * sent after the session is closed.
+     */
     public Newsletter addLink(String linkText, LinkableEntity linkableEntity) {
+        String type = Hibernate.getClass(linkableEntity).getSimpleName();
+        links.add(new Link(linkText, type, linkableEntity.getId()));
         return this;
     }
 
-    public void sendTo(Collection<User> users) {
+    /**
+     * Renders the Newsletter once; only the recipient's name is filled in
+     * when it is sent.
+     */
+    public RenderedNewsletter render() {
+        StringBuilder body = new StringBuilder(256);
+        if (headerText != null) {
+            body.append(headerText);
+            if (imgUrl != null) {
+                body.append(" [").append(imgUrl).append(']');
+            }
+            body.append("\n\n");
+        }
+        body.append("Hi ");
+        String beforeRecipientName = body.toString();
+        body.setLength(0);
+        body.append(",\n");
+        for (String content : contents) {
+            body.append('\n').append(content).append('\n');
+        }
+        for (Link link : links) {
+            body.append('\n').append(link.getText()).append(": /")
+                    .append(link.getType().toLowerCase(Locale.ROOT)).append('/').append(link.getId());
+        }
+        return new RenderedNewsletter(title, beforeRecipientName, body.toString());
+    }
+
+    /**
+     * Renders the Newsletter and hands it to the dispatcher, which may send it
+     * after this method returns.
+     */
+    public void sendTo(Collection<User> users, NewsletterDispatcher dispatcher) {
+        dispatcher.dispatch(render(), users);
+    }
+
+    public String getTitle() {
+        return title;
     }
 
+    public String getImgUrl() {
+        return imgUrl;
+    }
+
+    public String getHeaderText() {
+        return headerText;
+    }
+
+    public List<String> getContents() {
+        return Collections.unmodifiableList(contents);
+    }
+
+    public List<Link> getLinks() {
+        return Collections.unmodifiableList(links);
+    }
+
+    public static final class Link {
+
+        private final String text;
+        private final String type;
+        private final Long id;
+
+        public Link(String text, String type, Long id) {
+            this.text = text;
+            this.type = type;
+            this.id = id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
 }
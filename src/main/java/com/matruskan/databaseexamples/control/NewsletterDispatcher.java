@@ -0,0 +1,207 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import com.matruskan.databaseexamples.entities.User;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends Newsletters off the caller thread.
+ *
+ * The recipients are copied out of the Users and split in batches of
+ * {@code batchSize}; each batch is queued to a pool of {@code workers}
+ * threads that hand it to the {@link NewsletterTransport}. The queue holds at
+ * most {@code queueCapacity} batches: when it is full the caller waits for a
+ * worker to take one, which slows the producer down to the speed of the
+ * transport while the transport still never runs on the caller thread.
+ * {@link #close()} waits for every queued batch; dispatching after it fails.
+ */
+public class NewsletterDispatcher implements AutoCloseable {
+
+    public static final int DEFAULT_WORKERS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    private static final Logger LOGGER = LoggerFactory.getLogger(NewsletterDispatcher.class);
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+    private final NewsletterTransport transport;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+    /**
+     * One permit per batch that is queued or being sent.
+     */
+    private final Semaphore slots;
+    private volatile boolean closed;
+    private final LongAdder sentBatches = new LongAdder();
+    private final LongAdder sentRecipients = new LongAdder();
+    private final LongAdder failedRecipients = new LongAdder();
+
+    public NewsletterDispatcher(NewsletterTransport transport) {
+        this(transport, DEFAULT_WORKERS, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param workers number of sending threads, or 0 to send on the caller
+     * thread
+     */
+    public NewsletterDispatcher(NewsletterTransport transport, int workers, int queueCapacity, int batchSize) {
+        if (workers < 0 || batchSize < 1 || (workers > 0 && queueCapacity < 1)) {
+            throw new IllegalArgumentException("workers=" + workers
+                    + ", queueCapacity=" + queueCapacity + ", batchSize=" + batchSize);
+        }
+        this.transport = transport;
+        this.batchSize = batchSize;
+        this.executor = workers == 0 ? null : new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory());
+        this.slots = new Semaphore(workers + queueCapacity);
+    }
+
+    /**
+     * A dispatcher that sends every batch on the caller thread.
+     */
+    public static NewsletterDispatcher inline(NewsletterTransport transport) {
+        return new NewsletterDispatcher(transport, 0, 0, DEFAULT_BATCH_SIZE);
+    }
+
+    public void dispatch(RenderedNewsletter newsletter, Collection<User> users) {
+        List<Recipient> recipients = new ArrayList<>(users.size());
+        for (User user : users) {
+            recipients.add(Recipient.of(user));
+        }
+        dispatchToRecipients(newsletter, recipients);
+    }
+
+    /**
+     * @param recipients copied, so the caller may reuse the list
+     * @throws IllegalStateException if the dispatcher is closed
+     */
+    public void dispatchToRecipients(RenderedNewsletter newsletter, List<Recipient> recipients) {
+        if (closed) {
+            throw new IllegalStateException("The dispatcher is closed");
+        }
+        List<Recipient> copy = new ArrayList<>(recipients);
+        for (int from = 0; from < copy.size(); from += batchSize) {
+            List<Recipient> batch = copy.subList(from, Math.min(from + batchSize, copy.size()));
+            if (executor == null) {
+                send(newsletter, batch);
+            } else if (!enqueue(newsletter, batch)) {
+                int unsent = copy.size() - from;
+                failedRecipients.add(unsent);
+                LOGGER.error("Interrupted while dispatching a Newsletter, {} recipients not sent", unsent);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for a free slot in the queue.
+     *
+     * @return false if the caller was interrupted while waiting
+     */
+    private boolean enqueue(RenderedNewsletter newsletter, List<Recipient> batch) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    send(newsletter, batch);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            throw new IllegalStateException("The dispatcher is closed", e);
+        }
+        return true;
+    }
+
+    private void send(RenderedNewsletter newsletter, List<Recipient> batch) {
+        try {
+            transport.send(newsletter, batch);
+            sentBatches.increment();
+            sentRecipients.add(batch.size());
+        } catch (RuntimeException e) {
+            failedRecipients.add(batch.size());
+            LOGGER.error("Could not send a Newsletter to {} recipients", batch.size(), e);
+        }
+    }
+
+    public long getSentBatches() {
+        return sentBatches.sum();
+    }
+
+    public long getSentRecipients() {
+        return sentRecipients.sum();
+    }
+
+    public long getFailedRecipients() {
+        return failedRecipients.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for {} queued Newsletter batches", executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        String prefix = "newsletter-" + POOL_NUMBER.incrementAndGet() + "-";
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
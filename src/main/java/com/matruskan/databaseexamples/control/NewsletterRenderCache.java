@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+
+/**
+ * Keeps the last {@code maxEntries} rendered Newsletters by document id, so a
+ * Newsletter is rendered once however many times it is sent.
+ * <p>
+ * Each rendering is stored with a stamp of what it was rendered from; a
+ * rendering whose stamp no longer matches is rendered again.
+ */
+public class NewsletterRenderCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    private final Map<Long, Entry> rendered;
+    private long hits;
+    private long misses;
+
+    public NewsletterRenderCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public NewsletterRenderCache(int maxEntries) {
+        this.rendered = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Renders {@link Newsletter#about(Document)}. The stamp is the Document's
+     * version and its Author's name and image, so an edited Document is
+     * rendered again once its changes are flushed.
+     */
+    public RenderedNewsletter get(Document document) {
+        return get(document.getId(), stamp(document), () -> Newsletter.about(document));
+    }
+
+    /**
+     * Renders the Newsletters about {@code documents}, in order. The content
+     * of the Documents whose rendering is not cached is read in one query;
+     * the others' content is not read at all.
+     */
+    public List<RenderedNewsletter> getAll(Session session, List<Document> documents) {
+        List<Long> stale = getStaleIds(documents);
+        return getAll(documents, stale.isEmpty() ? Collections.emptyMap() : loadContents(session, stale));
+    }
+
+    /**
+     * @return the ids of the Documents whose rendering is not cached
+     */
+    public synchronized List<Long> getStaleIds(List<Document> documents) {
+        List<Long> stale = new ArrayList<>();
+        for (Document document : documents) {
+            if (!isCurrent(document.getId(), stamp(document))) {
+                stale.add(document.getId());
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Renders the Newsletters about {@code documents}, in order.
+     *
+     * @param contents the content of the Documents by id, read separately;
+     * a Document missing from it is rendered with {@link Document#getContent()}
+     */
+    public List<RenderedNewsletter> getAll(List<Document> documents, Map<Long, String> contents) {
+        List<RenderedNewsletter> renderings = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            renderings.add(get(document.getId(), stamp(document), () -> contents.containsKey(document.getId())
+                    ? Newsletter.about(document, contents.get(document.getId()))
+                    : Newsletter.about(document)));
+        }
+        return renderings;
+    }
+
+    /**
+     * @return the content of the Documents by id, read in one query
+     */
+    public static Map<Long, String> loadContents(Session session, Collection<Long> documentIds) {
+        Map<Long, String> contents = new HashMap<>();
+        session.createQuery("select d.id, d.content from Document d where d.id in :ids", Object[].class)
+                .setParameter("ids", documentIds)
+                .getResultList()
+                .forEach(row -> contents.put((Long) row[0], (String) row[1]));
+        return contents;
+    }
+
+    private boolean isCurrent(long documentId, Object stamp) {
+        Entry cached = rendered.get(documentId);
+        return cached != null && Objects.equals(cached.stamp, stamp);
+    }
+
+    private static Object stamp(Document document) {
+        Author author = document.getAuthor();
+        return Arrays.asList(document.getVersion(), author.getName(), author.getImgUrl());
+    }
+
+    /**
+     * @param newsletter builds the Newsletter when it is not cached yet
+     */
+    public RenderedNewsletter get(long documentId, Supplier<Newsletter> newsletter) {
+        return get(documentId, null, newsletter);
+    }
+
+    /**
+     * The Newsletter is rendered without holding the cache's lock. When two
+     * threads render the same Newsletter at once, the first rendering stored is
+     * the one both return.
+     *
+     * @param stamp what the Newsletter is rendered from; a cached rendering
+     * with a different stamp is rendered again
+     * @param newsletter builds the Newsletter when it is not cached yet
+     */
+    public RenderedNewsletter get(long documentId, Object stamp, Supplier<Newsletter> newsletter) {
+        synchronized (this) {
+            Entry cached = rendered.get(documentId);
+            if (cached != null && Objects.equals(cached.stamp, stamp)) {
+                hits++;
+                return cached.rendering;
+            }
+            misses++;
+        }
+        RenderedNewsletter rendering = newsletter.get().render();
+        synchronized (this) {
+            Entry cached = rendered.get(documentId);
+            if (cached != null && Objects.equals(cached.stamp, stamp)) {
+                return cached.rendering;
+            }
+            rendered.put(documentId, new Entry(stamp, rendering));
+        }
+        return rendering;
+    }
+
+    /**
+     * Drops the rendering of a document, for changes its stamp does not cover.
+     */
+    public synchronized void invalidate(long documentId) {
+        rendered.remove(documentId);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static class Entry {
+
+        private final Object stamp;
+        private final RenderedNewsletter rendering;
+
+        Entry(Object stamp, RenderedNewsletter rendering) {
+            this.stamp = stamp;
+            this.rendering = rendering;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+/**
+ * A Newsletter rendered once, with a gap for the recipient's name. Immutable,
+ * so one instance is shared by every recipient and every sending thread.
+ */
+public final class RenderedNewsletter {
+
+    static final String DEFAULT_RECIPIENT_NAME = "reader";
+    private final String subject;
+    private final String beforeRecipientName;
+    private final String afterRecipientName;
+
+    RenderedNewsletter(String subject, String beforeRecipientName, String afterRecipientName) {
+        this.subject = subject;
+        this.beforeRecipientName = beforeRecipientName;
+        this.afterRecipientName = afterRecipientName;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return the body with the recipient's username, or "reader" if the
+     * recipient has no account
+     */
+    public String renderFor(Recipient recipient) {
+        String name = recipient.getUsername() == null ? DEFAULT_RECIPIENT_NAME : recipient.getUsername();
+        return new StringBuilder(beforeRecipientName.length() + name.length() + afterRecipientName.length())
+                .append(beforeRecipientName)
+                .append(name)
+                .append(afterRecipientName)
+                .toString();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import com.matruskan.databaseexamples.dto.TitleRow;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds document titles like "Title (created by Author on 2018-07-14)".
+ *
+ * The date formatter is immutable and shared, and each renderer reuses one
+ * buffer, so rendering a title allocates little more than the resulting
+ * String. A renderer is not thread-safe: use {@link #forCurrentThread()} or
+ * one renderer per thread. {@link #renderAll(List)} renders large lists in
+ * parallel chunks, with one renderer per chunk.
+ */
+public class TitleRenderer {
+
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    static final int PARALLEL_THRESHOLD = 4096;
+    private static final ThreadLocal<TitleRenderer> RENDERERS = ThreadLocal.withInitial(TitleRenderer::new);
+    private final ZoneId zone;
+    private final StringBuilder buffer = new StringBuilder(128);
+
+    public TitleRenderer() {
+        this(ZoneId.systemDefault());
+    }
+
+    public TitleRenderer(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public static TitleRenderer forCurrentThread() {
+        return RENDERERS.get();
+    }
+
+    public String render(TitleRow row) {
+        return render(row.getTitle(), row.getDate(), row.getAuthorName());
+    }
+
+    public String render(String title, Date date, String authorName) {
+        // Date.toInstant() is not supported by java.sql.Date
+        return render(title, Instant.ofEpochMilli(date.getTime()), authorName);
+    }
+
+    public String render(String title, Instant date, String authorName) {
+        buffer.setLength(0);
+        buffer.append(title)
+                .append(" (created by ")
+                .append(authorName)
+                .append(" on ");
+        DATE_FORMAT.formatTo(date.atZone(zone), buffer);
+        return buffer.append(')').toString();
+    }
+
+    /**
+     * Renders every row, splitting lists longer than a few thousand rows
+     * into chunks that are rendered in the common fork/join pool.
+     *
+     * @return a fixed-size list of the titles, in the same order as the rows
+     */
+    public static List<String> renderAll(List<TitleRow> rows) {
+        String[] titles = new String[rows.size()];
+        RenderTask task = new RenderTask(rows, titles, 0, titles.length);
+        if (titles.length <= PARALLEL_THRESHOLD) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+        return Arrays.asList(titles);
+    }
+
+    private static class RenderTask extends RecursiveAction {
+
+        private final List<TitleRow> rows;
+        private final String[] titles;
+        private final int from;
+        private final int to;
+
+        RenderTask(List<TitleRow> rows, String[] titles, int from, int to) {
+            this.rows = rows;
+            this.titles = titles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                TitleRenderer renderer = new TitleRenderer();
+                for (int i = from; i < to; i++) {
+                    titles[i] = renderer.render(rows.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RenderTask(rows, titles, from, middle),
+                    new RenderTask(rows, titles, middle, to));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.dto;
+
+import java.util.Arrays;
+
+/**
+ * Rows of a (long, int) projection kept column by column in two primitive
+ * arrays: 12 bytes per row, with no object per row.
+ */
+public final class LongIntColumns {
+
+    private long[] longs;
+    private int[] ints;
+    private int size;
+
+    public LongIntColumns() {
+        this(16);
+    }
+
+    public LongIntColumns(int initialCapacity) {
+        longs = new long[Math.max(initialCapacity, 1)];
+        ints = new int[longs.length];
+    }
+
+    public void add(long first, int second) {
+        if (size == longs.length) {
+            int capacity = size + (size >> 1) + 1;
+            longs = Arrays.copyOf(longs, capacity);
+            ints = Arrays.copyOf(ints, capacity);
+        }
+        longs[size] = first;
+        ints[size] = second;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getLong(int row) {
+        checkRow(row);
+        return longs[row];
+    }
+
+    public int getInt(int row) {
+        checkRow(row);
+        return ints[row];
+    }
+
+    /**
+     * @return a copy of the first column
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(longs, size);
+    }
+
+    /**
+     * @return a copy of the second column
+     */
+    public int[] toIntArray() {
+        return Arrays.copyOf(ints, size);
+    }
+
+    public void forEach(LongIntConsumer consumer) {
+        for (int row = 0; row < size; row++) {
+            consumer.accept(longs[row], ints[row]);
+        }
+    }
+
+    /**
+     * @return the rows indexed by the first column; later rows win
+     */
+    public LongIntHashMap toMap() {
+        LongIntHashMap map = new LongIntHashMap(size);
+        forEach(map::put);
+        return map;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + ", size " + size);
+        }
+    }
+}
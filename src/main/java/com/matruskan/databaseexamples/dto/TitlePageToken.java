@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.dto;
+
+import java.util.Objects;
+
+/**
+ * Position after the last title of a {@link TitlePage}: the ids of its last
+ * Author and Document. Titles are listed in (author id, document id) order,
+ * so the next page starts right after this position.
+ */
+public class TitlePageToken {
+
+    /**
+     * Cannot appear in a long, negative ones included, and needs no escaping
+     * in a URL.
+     */
+    private static final String SEPARATOR = "_";
+
+    private final long authorId;
+    private final long documentId;
+
+    public TitlePageToken(long authorId, long documentId) {
+        this.authorId = authorId;
+        this.documentId = documentId;
+    }
+
+    /**
+     * Parses a token created by {@link #toString()}, e.g. received from a
+     * client as a query parameter.
+     */
+    public static TitlePageToken parse(String token) {
+        String[] ids = token.split(SEPARATOR, -1);
+        if (ids.length != 2) {
+            throw new IllegalArgumentException("Invalid page token: " + token);
+        }
+        try {
+            return new TitlePageToken(Long.parseLong(ids[0]), Long.parseLong(ids[1]));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid page token: " + token, ex);
+        }
+    }
+
+    public long getAuthorId() {
+        return authorId;
+    }
+
+    public long getDocumentId() {
+        return documentId;
+    }
+
+    @Override
+    public String toString() {
+        return authorId + SEPARATOR + documentId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(authorId, documentId);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final TitlePageToken other = (TitlePageToken) obj;
+        return this.authorId == other.authorId && this.documentId == other.documentId;
+    }
+}
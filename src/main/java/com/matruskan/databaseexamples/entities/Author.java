@@ -24,17 +24,28 @@
 package com.matruskan.databaseexamples.entities;
 
 import java.io.Serializable;
+import java.util.Date;
 import java.util.Objects;
 import java.util.Set;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  *
  */
 @Entity
+@NamedEntityGraph(name = "Author.documents", attributeNodes = @NamedAttributeNode("documents"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author")
 public class Author implements Serializable, LinkableEntity {
 
     @Id
@@ -43,7 +54,25 @@ public class Author implements Serializable, LinkableEntity {
     private String name;
     private String imgUrl;
     @OneToMany(mappedBy="author")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author.documents")
     private Set<Document> documents;
+    /**
+     * Number of Documents of this Author. It is never written from the
+     * entity: AuthorDocumentsListener adjusts it in the database when the
+     * transaction that inserts, deletes or re-assigns Documents commits.
+     */
+    @Column(updatable = false)
+    @ColumnDefault("0")
+    private long documentCount;
+    /**
+     * Date and id of the newest Document of this Author, maintained like
+     * {@link #documentCount}. There is no foreign key to Document, so a
+     * Document can be deleted before the pointer is recomputed.
+     */
+    @Column(updatable = false)
+    private Date latestDocumentDate;
+    @Column(updatable = false)
+    private Long latestDocumentId;
 
     public Author() {
     }
@@ -81,6 +110,25 @@ public class Author implements Serializable, LinkableEntity {
         this.documents = documents;
     }
 
+    /**
+     * @return the document counter as it was when this Author was loaded
+     */
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    public Date getLatestDocumentDate() {
+        return latestDocumentDate;
+    }
+
+    /**
+     * @return the id of the newest Document as it was when this Author was
+     * loaded, or null if it had no Documents
+     */
+    public Long getLatestDocumentId() {
+        return latestDocumentId;
+    }
+
     @Override
     public int hashCode() {
         int hash = 5;
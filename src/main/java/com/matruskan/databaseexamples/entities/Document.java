@@ -26,23 +26,64 @@ package com.matruskan.databaseexamples.entities;
 import java.io.Serializable;
 import java.util.Date;
 import java.util.Objects;
+import javax.persistence.Basic;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
+import javax.persistence.NamedSubgraph;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.LazyGroup;
 
 /**
  *
  */
 @Entity
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = "Document.author", attributeNodes = @NamedAttributeNode("author")),
+    @NamedEntityGraph(name = "Document.author.documents",
+            attributeNodes = @NamedAttributeNode(value = "author", subgraph = "author"),
+            subgraphs = @NamedSubgraph(name = "author", attributeNodes = @NamedAttributeNode("documents")))
+})
+@Table(indexes = {
+    @Index(name = "document_author_date", columnList = "author_id, date"),
+    @Index(name = "document_date", columnList = "date")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "document")
 public class Document implements Serializable, LinkableEntity {
 
     @Id
     @GeneratedValue
     private Long id;
     private String title;
+    // an older varchar(255) column is migrated by DocumentContentStore.migrateContentColumn()
+    @Lob
+    @Column(length = Integer.MAX_VALUE)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("content")
     private String content;
+    private Integer contentDigest;
+    // bulk updates must increment it as well
+    @Version
+    @ColumnDefault("0")
+    private long version;
     private Date date;
     @ManyToOne @JoinColumn
     private Author author;
@@ -75,6 +116,31 @@ public class Document implements Serializable, LinkableEntity {
         this.content = content;
     }
 
+    /**
+     * @return {@code Objects.hashCode(content)} as of the last insert or
+     * update
+     */
+    public Integer getContentDigest() {
+        return contentDigest;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateContentDigest() {
+        // content is lazy: if it was never read, it did not change
+        if (Hibernate.isPropertyInitialized(this, "content")) {
+            contentDigest = Objects.hashCode(content);
+        }
+    }
+
     public Date getDate() {
         return date;
     }
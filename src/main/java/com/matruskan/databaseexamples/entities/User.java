@@ -25,18 +25,34 @@ package com.matruskan.databaseexamples.entities;
 
 import java.io.Serializable;
 import java.util.Set;
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToOne;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  *
  */
 @Entity
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = "User.favoriteAuthors", attributeNodes = @NamedAttributeNode("favoriteAuthors")),
+    @NamedEntityGraph(name = "User.favoriteAuthors.documents",
+            attributeNodes = @NamedAttributeNode(value = "favoriteAuthors", subgraph = "favoriteAuthors"),
+            subgraphs = @NamedSubgraph(name = "favoriteAuthors", attributeNodes = @NamedAttributeNode("documents")))
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User implements Serializable, LinkableEntity {
 
     @Id
@@ -45,10 +61,12 @@ public class User implements Serializable, LinkableEntity {
     @OneToOne @JoinColumn
     private Account account;
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.favoriteAuthors")
     @JoinTable(
             name = "User_FavoriteAuthors",
             joinColumns = {@JoinColumn(name = "user_id")},
-            inverseJoinColumns = {@JoinColumn(name = "author_id")})
+            inverseJoinColumns = {@JoinColumn(name = "author_id")},
+            indexes = {@Index(name = "user_favorite_authors_author", columnList = "author_id")})
     private Set<Author> favoriteAuthors;
 
     public User() {
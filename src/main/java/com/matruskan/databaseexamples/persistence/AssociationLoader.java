@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.User;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import org.hibernate.Session;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.CollectionKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+
+/**
+ * Loads the owners that match a {@link CriteriaFilter} and initializes one of
+ * their collections, using a {@link CollectionFetchMode} chosen per call.
+ *
+ * This is an alternative to traversing the lazy collections one owner at a
+ * time (N+1 queries) and to join fetching them with the owners query (one
+ * result set that repeats every owner column on every collection row):
+ * {@link CollectionFetchMode#BATCH} issues 1 + N / batchSize queries and
+ * {@link CollectionFetchMode#SUBSELECT} always issues 2. Either way, the
+ * collection queries only select the owner id next to each element.
+ *
+ * The rows are put into the collections of the owners the way Hibernate
+ * puts a collection read from the second-level cache, so traversing them
+ * issues no SQL and the session tracks them as loaded.
+ */
+public class AssociationLoader {
+
+    private final Session session;
+
+    public AssociationLoader(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * @return the Authors, in id order, with their documents initialized
+     */
+    public List<Author> loadDocuments(CriteriaFilter<Author> filter, CollectionFetchMode fetchMode, int batchSize) {
+        return load(Author.class, "documents", filter, fetchMode, batchSize);
+    }
+
+    /**
+     * @return the Users, in id order, with their favorite Authors initialized
+     */
+    public List<User> loadFavoriteAuthors(CriteriaFilter<User> filter, CollectionFetchMode fetchMode, int batchSize) {
+        return load(User.class, "favoriteAuthors", filter, fetchMode, batchSize);
+    }
+
+    private <O> List<O> load(Class<O> ownerClass, String attribute, CriteriaFilter<O> filter,
+            CollectionFetchMode fetchMode, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaQuery<O> ownersQuery = builder.createQuery(ownerClass);
+        Root<O> ownerRoot = ownersQuery.from(ownerClass);
+        ownersQuery.select(ownerRoot)
+                .where(filter.toPredicate(ownerRoot, builder))
+                .orderBy(builder.asc(ownerRoot.get("id")));
+        List<O> owners = session.createQuery(ownersQuery).getResultList();
+        Map<Object, List<Serializable>> elementIds = new HashMap<>();
+        switch (fetchMode) {
+            case BATCH:
+                for (int from = 0; from < owners.size(); from += batchSize) {
+                    List<Object> ids = new ArrayList<>();
+                    for (O owner : owners.subList(from, Math.min(from + batchSize, owners.size()))) {
+                        ids.add(session.getIdentifier(owner));
+                    }
+                    CriteriaQuery<Tuple> rows = builder.createTupleQuery();
+                    Join<O, ?> element = selectRows(rows, ownerClass, attribute);
+                    rows.where(element.getParent().get("id").in(ids));
+                    collect(rows, elementIds);
+                }
+                break;
+            case SUBSELECT:
+                CriteriaQuery<Tuple> rows = builder.createTupleQuery();
+                Join<O, ?> element = selectRows(rows, ownerClass, attribute);
+                Subquery<Object> ownerIds = rows.subquery(Object.class);
+                Root<O> subselectRoot = ownerIds.from(ownerClass);
+                ownerIds.select(subselectRoot.get("id"))
+                        .where(filter.toPredicate(subselectRoot, builder));
+                rows.where(element.getParent().get("id").in(ownerIds));
+                collect(rows, elementIds);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported fetch mode: " + fetchMode);
+        }
+        initialize(owners, ownerClass.getName() + "." + attribute, elementIds);
+        return owners;
+    }
+
+    /**
+     * Selects (owner id, element) rows, joining the owner to its collection.
+     *
+     * @return the join to the elements
+     */
+    private <O> Join<O, ?> selectRows(CriteriaQuery<Tuple> rows, Class<O> ownerClass, String attribute) {
+        Root<O> owner = rows.from(ownerClass);
+        Join<O, ?> element = owner.join(attribute);
+        rows.multiselect(owner.get("id"), element);
+        return element;
+    }
+
+    private void collect(CriteriaQuery<Tuple> rows, Map<Object, List<Serializable>> elementIds) {
+        for (Tuple row : session.createQuery(rows).getResultList()) {
+            elementIds.computeIfAbsent(row.get(0), ownerId -> new ArrayList<>())
+                    .add(session.getIdentifier(row.get(1)));
+        }
+    }
+
+    /**
+     * The elements were loaded by the row queries, so resolving their ids
+     * finds them in the session. With bytecode enhancement the collection of
+     * an owner does not exist until its getter is called, which then loads
+     * it unless the session already has it: so it is created here, keyed by
+     * the owner id, and the getter picks it up.
+     */
+    private <O> void initialize(List<O> owners, String role, Map<Object, List<Serializable>> elementIds) {
+        SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+        CollectionPersister persister = sessionImplementor.getFactory()
+                .getMetamodel()
+                .collectionPersister(role);
+        PersistenceContext persistenceContext = sessionImplementor.getPersistenceContext();
+        for (O owner : owners) {
+            Serializable ownerId = session.getIdentifier(owner);
+            PersistentCollection collection = persistenceContext.getCollection(new CollectionKey(persister, ownerId));
+            if (collection == null) {
+                collection = persister.getCollectionType().instantiate(sessionImplementor, persister, ownerId);
+                collection.setOwner(owner);
+                persistenceContext.addUninitializedCollection(persister, collection, ownerId);
+            } else if (collection.wasInitialized()) {
+                continue;
+            }
+            List<Serializable> ids = elementIds.getOrDefault(ownerId, Collections.emptyList());
+            collection.initializeFromCache(persister, ids.toArray(new Serializable[ids.size()]), owner);
+            collection.afterInitialize();
+            persistenceContext.getCollectionEntry(collection).postInitialize(collection);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import org.hibernate.Session;
+
+/**
+ * Reads and adjusts what an Author keeps about its Documents: the
+ * denormalized {@code documentCount} and the pointer to its latest Document,
+ * {@code latestDocumentDate} and {@code latestDocumentId}.
+ *
+ * Reads go to the database by primary key, not to the Author loaded in the
+ * session, which keeps the values it had when it was loaded.
+ */
+public class AuthorDocuments {
+
+    static final String LATEST_DOCUMENT_DATE
+            = "(select max(d.date) from Document d where d.author_id = a.id)";
+    static final String LATEST_DOCUMENT_ID
+            = "(select d.id from Document d where d.author_id = a.id"
+            + " order by d.date desc, d.id desc limit 1)";
+    static final String DOCUMENT_COUNT
+            = "(select count(*) from Document d where d.author_id = a.id)";
+    /**
+     * Adds a delta to the counter of an Author and recomputes its latest
+     * Document pointer from the Document table.
+     */
+    static final String ADJUST = "update Author a"
+            + " set documentCount = documentCount + ?,"
+            + " latestDocumentDate = " + LATEST_DOCUMENT_DATE + ","
+            + " latestDocumentId = " + LATEST_DOCUMENT_ID
+            + " where a.id = ?";
+
+    private final Session session;
+
+    public AuthorDocuments(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * @return the number of Documents of the Author, or 0 if there is no
+     * Author with that id
+     */
+    public long count(Author author) {
+        Long count = session.createQuery("select a.documentCount from Author a"
+                + " where a.id = :id", Long.class)
+                .setParameter("id", author.getId())
+                .uniqueResult();
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return the id of the latest Document of the Author, or null if it has
+     * no Documents
+     */
+    public Long latestDocumentId(Author author) {
+        return session.createQuery("select a.latestDocumentId from Author a"
+                + " where a.id = :id", Long.class)
+                .setParameter("id", author.getId())
+                .uniqueResult();
+    }
+
+    /**
+     * Adds {@code delta} to the counter of the Author and recomputes its
+     * latest Document, in one statement. Used by bulk statements that insert,
+     * delete, re-date or re-assign Documents without raising events. Must be
+     * called inside a transaction.
+     */
+    public void adjust(Author author, long delta) {
+        adjust(author.getId(), delta);
+    }
+
+    /**
+     * Same as {@link #adjust(Author, long)}, for an Author known by id.
+     */
+    public void adjust(long authorId, long delta) {
+        session.createNativeQuery(ADJUST)
+                .setParameter(1, delta)
+                .setParameter(2, authorId)
+                .addSynchronizedEntityClass(Author.class)
+                .executeUpdate();
+    }
+
+    /**
+     * Counts the Documents and points to the latest one of the Authors that
+     * were written before the counter and the pointer existed, whose counter
+     * is still its default of 0 or whose pointer is null. Cheaper than
+     * {@link #reconcile()}: only those Authors are checked. Must be called
+     * inside a transaction.
+     *
+     * @return the number of Authors that were filled in
+     */
+    public int backfill() {
+        return session.createNativeQuery("update Author a"
+                + " set documentCount = " + DOCUMENT_COUNT + ","
+                + " latestDocumentDate = " + LATEST_DOCUMENT_DATE + ","
+                + " latestDocumentId = " + LATEST_DOCUMENT_ID
+                + " where (documentCount = 0 or latestDocumentId is null)"
+                + " and exists (select d.id from Document d where d.author_id = a.id)")
+                .addSynchronizedEntityClass(Author.class)
+                .executeUpdate();
+    }
+
+    /**
+     * Recomputes every counter and latest Document pointer that drifted from
+     * the Document table, in one statement. It is native SQL: HQL does not
+     * qualify the columns of the updated table inside the correlated
+     * subqueries. Must be called inside a transaction.
+     *
+     * @return the number of Authors that were wrong
+     */
+    public int reconcile() {
+        return session.createNativeQuery("update Author a"
+                + " set documentCount = " + DOCUMENT_COUNT + ","
+                + " latestDocumentDate = " + LATEST_DOCUMENT_DATE + ","
+                + " latestDocumentId = " + LATEST_DOCUMENT_ID
+                + " where documentCount <> " + DOCUMENT_COUNT
+                + " or latestDocumentId is distinct from " + LATEST_DOCUMENT_ID)
+                .addSynchronizedEntityClass(Author.class)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import javax.persistence.TemporalType;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Keeps {@code Author.documentCount} and the latest Document pointer of the
+ * Authors in step with the Documents written through a session.
+ *
+ * Every inserted, deleted or re-assigned Document adds a delta to its
+ * Author, and the changes of a transaction are applied right before it
+ * commits, with one native UPDATE per Author, in Author id order, so
+ * concurrent commits lock the Authors they share in the same order. The
+ * UPDATEs go through the session like {@link AuthorDocuments#adjust}: they
+ * are seen by the {@link StatementCounter} and invalidate the cached Authors
+ * and Author queries. A rolled back transaction discards its changes.
+ *
+ * A Document newer than the latest one of its Author replaces it with a
+ * conditional UPDATE, so concurrent transactions cannot move the pointer
+ * back. When a Document leaves an Author, by delete, re-assignment or an
+ * older date, the pointer of that Author is recomputed from the Document
+ * table instead.
+ *
+ * Bulk HQL and JDBC statements do not raise events: they must adjust the
+ * Authors themselves through {@link AuthorDocuments}. An update of a
+ * detached Document carries no old state, so a change made that way is
+ * missed until {@link AuthorDocuments#reconcile()} runs.
+ */
+public class AuthorDocumentsListener implements PostInsertEventListener,
+        PostDeleteEventListener, PostUpdateEventListener {
+
+    private static final String NEWER = "(latestDocumentDate is null"
+            + " or latestDocumentDate < :date"
+            + " or (latestDocumentDate = :date and latestDocumentId < :documentId))";
+    /**
+     * Adds the delta of an Author and advances its latest Document to the
+     * given one, when that one is newer.
+     */
+    private static final String ADVANCE = "update Author a"
+            + " set documentCount = documentCount + :delta,"
+            + " latestDocumentId = case when " + NEWER + " then :documentId else latestDocumentId end,"
+            + " latestDocumentDate = case when " + NEWER + " then :date else latestDocumentDate end"
+            + " where a.id = :authorId";
+
+    private final Map<SessionImplementor, PendingChanges> pending
+            = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Document) {
+            Long authorId = getAuthorId(event.getPersister(), event.getState(), event.getSession());
+            PendingChanges changes = pendingChanges(event.getSession());
+            changes.add(authorId, 1);
+            changes.offer(authorId, getDate(event.getPersister(), event.getState()), (Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Document) {
+            Long authorId = getAuthorId(event.getPersister(), event.getDeletedState(), event.getSession());
+            PendingChanges changes = pendingChanges(event.getSession());
+            changes.add(authorId, -1);
+            changes.recompute(authorId);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Document) || event.getOldState() == null) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long oldAuthorId = getAuthorId(persister, event.getOldState(), event.getSession());
+        Long newAuthorId = getAuthorId(persister, event.getState(), event.getSession());
+        Date oldDate = getDate(persister, event.getOldState());
+        Date newDate = getDate(persister, event.getState());
+        if (!Objects.equals(oldAuthorId, newAuthorId)) {
+            PendingChanges changes = pendingChanges(event.getSession());
+            changes.add(oldAuthorId, -1);
+            changes.recompute(oldAuthorId);
+            changes.add(newAuthorId, 1);
+            changes.offer(newAuthorId, newDate, (Long) event.getId());
+        } else if (!sameInstant(oldDate, newDate)) {
+            PendingChanges changes = pendingChanges(event.getSession());
+            changes.add(newAuthorId, 0);
+            if (oldDate != null && newDate != null && newDate.after(oldDate)) {
+                changes.offer(newAuthorId, newDate, (Long) event.getId());
+            } else {
+                changes.recompute(newAuthorId);
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Still abstract in Hibernate 5.3, which calls the non-deprecated
+     * {@link #requiresPostCommitHandling(EntityPersister)}.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private Long getAuthorId(EntityPersister persister, Object[] state, EventSource session) {
+        Object author = state[persister.getEntityMetamodel().getPropertyIndex("author")];
+        if (author == null) {
+            return null;
+        }
+        return (Long) session.getFactory()
+                .getMetamodel()
+                .entityPersister(Author.class)
+                .getIdentifier(author, session);
+    }
+
+    private Date getDate(EntityPersister persister, Object[] state) {
+        return (Date) state[persister.getEntityMetamodel().getPropertyIndex("date")];
+    }
+
+    private boolean sameInstant(Date date, Date other) {
+        if (date == null || other == null) {
+            return date == other;
+        }
+        return date.getTime() == other.getTime();
+    }
+
+    private PendingChanges pendingChanges(EventSource session) {
+        synchronized (pending) {
+            PendingChanges changes = pending.get(session);
+            if (changes == null) {
+                changes = new PendingChanges();
+                pending.put(session, changes);
+                session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) changes);
+                session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) changes);
+            }
+            return changes;
+        }
+    }
+
+    private class PendingChanges implements BeforeTransactionCompletionProcess,
+            AfterTransactionCompletionProcess {
+
+        private final SortedMap<Long, Long> deltas = new TreeMap<>();
+        private final Map<Long, Date> newestDates = new HashMap<>();
+        private final Map<Long, Long> newestIds = new HashMap<>();
+        private final Set<Long> stale = new HashSet<>();
+
+        void add(Long authorId, long delta) {
+            if (authorId != null) {
+                deltas.merge(authorId, delta, Long::sum);
+            }
+        }
+
+        /**
+         * Keeps the newest Document inserted for the Author in this
+         * transaction.
+         */
+        void offer(Long authorId, Date date, Long documentId) {
+            if (authorId == null) {
+                return;
+            }
+            if (date == null) {
+                recompute(authorId);
+                return;
+            }
+            Date newestDate = newestDates.get(authorId);
+            if (newestDate == null || newestDate.getTime() < date.getTime()
+                    || (newestDate.getTime() == date.getTime() && newestIds.get(authorId) < documentId)) {
+                newestDates.put(authorId, date);
+                newestIds.put(authorId, documentId);
+            }
+        }
+
+        void recompute(Long authorId) {
+            if (authorId != null) {
+                stale.add(authorId);
+            }
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            AuthorDocuments authorDocuments = new AuthorDocuments(session);
+            for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+                Long authorId = delta.getKey();
+                if (stale.contains(authorId) || !newestIds.containsKey(authorId)) {
+                    authorDocuments.adjust(authorId, delta.getValue());
+                } else {
+                    session.createNativeQuery(ADVANCE)
+                            .setParameter("delta", delta.getValue())
+                            .setParameter("date", newestDates.get(authorId), TemporalType.TIMESTAMP)
+                            .setParameter("documentId", newestIds.get(authorId))
+                            .setParameter("authorId", authorId)
+                            .addSynchronizedEntityClass(Author.class)
+                            .executeUpdate();
+                }
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pending.remove((SessionImplementor) session);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import java.util.Iterator;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inserts Authors and their Documents using JDBC batches.
+ *
+ * Entities are saved in a single transaction, and the session is flushed and
+ * cleared every {@code batchSize} entities, so each flush sends one batched
+ * INSERT per table and the persistence context never grows beyond one batch.
+ */
+public class BulkLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoader.class);
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
+    private final HibernateSession hibernateSession;
+    private final int batchSize;
+
+    public BulkLoader(HibernateSession hibernateSession) {
+        this(hibernateSession, DEFAULT_BATCH_SIZE);
+    }
+
+    public BulkLoader(HibernateSession hibernateSession, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.hibernateSession = hibernateSession;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Saves every Author and the Documents in its {@code documents} set.
+     */
+    public BulkLoadReport load(Iterable<Author> authors) {
+        return load(authors.iterator());
+    }
+
+    /**
+     * Saves every Author and the Documents in its {@code documents} set.
+     * Authors are pulled from the iterator one at a time, so they can be
+     * generated on demand.
+     */
+    public BulkLoadReport load(Iterator<Author> authors) {
+        long start = System.nanoTime();
+        long authorCount = 0;
+        long documentCount = 0;
+        int pending = 0;
+        try (Session session = hibernateSession.openSession()) {
+            session.setJdbcBatchSize(batchSize);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.setCacheMode(CacheMode.IGNORE);
+            Transaction transaction = session.beginTransaction();
+            try {
+                while (authors.hasNext()) {
+                    Author author = authors.next();
+                    session.save(author);
+                    authorCount++;
+                    pending++;
+                    if (author.getDocuments() != null) {
+                        for (Document document : author.getDocuments()) {
+                            document.setAuthor(author);
+                            session.save(document);
+                            documentCount++;
+                            pending++;
+                            if (pending >= batchSize) {
+                                flushAndClear(session);
+                                pending = 0;
+                            }
+                        }
+                    }
+                    if (pending >= batchSize) {
+                        flushAndClear(session);
+                        pending = 0;
+                    }
+                }
+                session.flush();
+                transaction.commit();
+            } catch (RuntimeException ex) {
+                transaction.rollback();
+                throw ex;
+            }
+        }
+        BulkLoadReport report = new BulkLoadReport(authorCount, documentCount, System.nanoTime() - start);
+        LOGGER.info("Bulk load finished: {}", report);
+        return report;
+    }
+
+    private void flushAndClear(Session session) {
+        session.flush();
+        session.clear();
+    }
+}
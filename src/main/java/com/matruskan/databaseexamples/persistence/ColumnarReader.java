@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.dto.LongIntColumns;
+import java.util.function.ToIntFunction;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+
+/**
+ * Reads projection queries straight into primitive columns, through a
+ * forward-only cursor, without building a List of rows or boxing the
+ * values into a Map.
+ */
+public final class ColumnarReader {
+
+    private ColumnarReader() {
+    }
+
+    /**
+     * Reads a query that selects two numbers, like
+     * {@code select d.id, d.contentDigest from Document d}. Null values are
+     * read as 0.
+     *
+     * @param fetchSize number of rows the JDBC driver fetches per round trip
+     */
+    public static LongIntColumns readLongInt(Query<Object[]> query, int fetchSize) {
+        return readLongInt(query, fetchSize, row -> (int) longValue(row[1]));
+    }
+
+    /**
+     * Reads a query whose first column is a number and whose other columns
+     * are turned into the int column by {@code value}.
+     *
+     * @param fetchSize number of rows the JDBC driver fetches per round trip
+     */
+    public static LongIntColumns readLongInt(Query<Object[]> query, int fetchSize, ToIntFunction<Object[]> value) {
+        LongIntColumns columns = new LongIntColumns(fetchSize);
+        try (ScrollableResults results = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Object[] row = results.get();
+                columns.add(longValue(row[0]), value.applyAsInt(row));
+            }
+        }
+        return columns;
+    }
+
+    private static long longValue(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.hibernate.HibernateException;
+import org.hsqldb.error.ErrorCode;
+
+/**
+ * How a {@link HibernateSession} reaches its HSQLDB database.
+ *
+ * In {@link #SERVER} mode every statement and result travels through a
+ * socket to the {@link HSQLDBServer}. The in-process modes run the database
+ * engine in this JVM, so a query is a method call, but the database is only
+ * reachable from this JVM and stays open until {@link #shutdown(String)}.
+ */
+public enum DatabaseMode {
+
+    /**
+     * Through the network server started by {@link HSQLDBServer}.
+     */
+    SERVER("jdbc:hsqldb:hsql://localhost/"),
+    /**
+     * In this JVM, kept in memory only.
+     */
+    MEMORY("jdbc:hsqldb:mem:"),
+    /**
+     * In this JVM, kept in the same files the server uses.
+     */
+    FILE("jdbc:hsqldb:file:db/");
+
+    private final String urlPrefix;
+
+    DatabaseMode(String urlPrefix) {
+        this.urlPrefix = urlPrefix;
+    }
+
+    public String getUrl(String databaseName) {
+        return urlPrefix + databaseName;
+    }
+
+    public boolean isInProcess() {
+        return this != SERVER;
+    }
+
+    /**
+     * Closes an in-process database, releasing its memory and files. A
+     * {@link #MEMORY} database loses its data. Does nothing in
+     * {@link #SERVER} mode, where {@link HSQLDBServer#stop()} does it, and
+     * for a database that does not exist, instead of creating it.
+     */
+    public void shutdown(String databaseName) {
+        if (!isInProcess()) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(getUrl(databaseName) + ";ifexists=true", "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } catch (SQLException ex) {
+            if (ex.getErrorCode() != -ErrorCode.DATABASE_NOT_EXISTS) {
+                throw new HibernateException("Could not shut down " + getUrl(databaseName), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.dto.LongIntConsumer;
+import com.matruskan.databaseexamples.entities.Document;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.type.ClobType;
+
+/**
+ * Reads and writes the Document content CLOB as a character stream through
+ * JDBC, so a large content is never held in memory as one String.
+ *
+ * The content digest is computed while the content streams by, and equals
+ * {@code Objects.hashCode(content)}. Writes bypass the persistence context:
+ * a Document already loaded in the session keeps its old content, while the
+ * cached Documents and Document queries are invalidated.
+ *
+ * The content column must be a CLOB; see {@link #migrateContentColumn()}.
+ */
+public class DocumentContentStore {
+
+    public static final int BUFFER_SIZE = 8192;
+    private static final String WRITE_CONTENT = "update Document"
+            + " set content = :content, contentDigest = :digest, version = version + 1"
+            + " where id = :id";
+    private final Session session;
+
+    public DocumentContentStore(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Replaces the content of a Document, reading it from {@code content}
+     * until the end of the stream. The content is spooled to a temporary
+     * file while it is hashed, so the content and its digest are written by
+     * one UPDATE. Must be called inside a transaction.
+     *
+     * @return false if there is no Document with that id
+     */
+    public boolean writeContent(long documentId, Reader content) {
+        if (content == null) {
+            throw new IllegalArgumentException("content of Document " + documentId
+                    + " must not be null; use Document.setContent(null) to clear it");
+        }
+        session.flush();
+        Path spool = null;
+        try {
+            spool = Files.createTempFile("document-" + documentId + "-", ".content");
+            HashingReader hashingReader = new HashingReader(content);
+            long length = 0;
+            try (Writer out = Files.newBufferedWriter(spool, StandardCharsets.UTF_8)) {
+                char[] buffer = new char[BUFFER_SIZE];
+                for (int read = hashingReader.read(buffer); read != -1; read = hashingReader.read(buffer)) {
+                    out.write(buffer, 0, read);
+                    length += read;
+                }
+            }
+            try (Reader spooled = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+                return session.createNativeQuery(WRITE_CONTENT)
+                        .setParameter("content", session.getLobHelper().createClob(spooled, length), ClobType.INSTANCE)
+                        .setParameter("digest", hashingReader.getHash())
+                        .setParameter("id", documentId)
+                        .addSynchronizedEntityClass(Document.class)
+                        .executeUpdate() > 0;
+            }
+        } catch (IOException e) {
+            throw new HibernateException("Could not spool the content of Document " + documentId, e);
+        } finally {
+            deleteSpool(spool);
+        }
+    }
+
+    private static void deleteSpool(Path spool) {
+        if (spool != null) {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                spool.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Turns the content column into a CLOB on a database created when content
+     * was a {@code varchar(255)}: {@code hbm2ddl.auto=update} does not change
+     * the type of an existing column. Run it once after upgrading such a
+     * database. Uses the HSQLDB syntax.
+     *
+     * @return whether the column had to be changed
+     */
+    public boolean migrateContentColumn() {
+        return session.doReturningWork(connection -> {
+            try (ResultSet column = connection.getMetaData().getColumns(null, null, "DOCUMENT", "CONTENT")) {
+                if (!column.next() || column.getInt("DATA_TYPE") == Types.CLOB) {
+                    return false;
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("ALTER TABLE Document ALTER COLUMN content CLOB");
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Copies the content of a Document to {@code out}.
+     *
+     * @return the number of characters copied, or -1 if there is no Document
+     * with that id or its content is null
+     */
+    public long exportContent(long documentId, Writer out) {
+        return session.doReturningWork(connection -> {
+            String sql = "select content from Document where id = ?";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, documentId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? copy(resultSet.getCharacterStream(1), out) : -1L;
+                }
+            }
+        });
+    }
+
+    /**
+     * @return {@code Objects.hashCode(content)} of a Document, read as a
+     * stream, or 0 if there is no Document with that id
+     */
+    public int hashContent(long documentId) {
+        return session.doReturningWork(connection -> {
+            String sql = "select content from Document where id = ?";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setLong(1, documentId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? hash(resultSet, 1) : 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * Streams the content of every Document and passes its id and
+     * {@code Objects.hashCode(content)} to the consumer.
+     *
+     * @param fetchSize number of rows the JDBC driver fetches per round trip
+     */
+    public void hashAllContents(int fetchSize, LongIntConsumer consumer) {
+        session.doWork(connection -> {
+            String sql = "select id, content from Document";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        consumer.accept(resultSet.getLong(1), hash(resultSet, 2));
+                    }
+                }
+            }
+        });
+    }
+
+    private static int hash(ResultSet resultSet, int column) throws SQLException {
+        try (Reader content = resultSet.getCharacterStream(column)) {
+            if (content == null) {
+                return 0;
+            }
+            HashingReader hashingReader = new HashingReader(content);
+            char[] buffer = new char[BUFFER_SIZE];
+            while (hashingReader.read(buffer) != -1) {
+                // the reader hashes what it reads
+            }
+            return hashingReader.getHash();
+        } catch (IOException e) {
+            throw new SQLException("Could not read the content", e);
+        }
+    }
+
+    /**
+     * @return the number of characters copied, or -1 if {@code in} is null
+     */
+    private static long copy(Reader in, Writer out) throws SQLException {
+        if (in == null) {
+            return -1;
+        }
+        char[] buffer = new char[BUFFER_SIZE];
+        long copied = 0;
+        try (Reader content = in) {
+            for (int read = content.read(buffer); read != -1; read = content.read(buffer)) {
+                out.write(buffer, 0, read);
+                copied += read;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new SQLException("Could not export the content", e);
+        }
+        return copied;
+    }
+
+    /**
+     * Computes {@code String.hashCode()} of the characters read through it.
+     */
+    static class HashingReader extends FilterReader {
+
+        private int hash;
+
+        HashingReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                hash = 31 * hash + c;
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            for (int i = offset; i < offset + read; i++) {
+                hash = 31 * hash + buffer[i];
+            }
+            return read;
+        }
+
+        /**
+         * Reads the skipped characters, so they are hashed too.
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            if (n < 0) {
+                throw new IllegalArgumentException("skip value is negative");
+            }
+            char[] buffer = new char[(int) Math.min(n, BUFFER_SIZE)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        /**
+         * A reset would hash the same characters twice.
+         */
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void mark(int readAheadLimit) throws IOException {
+            throw new IOException("mark() not supported");
+        }
+
+        @Override
+        public void reset() throws IOException {
+            throw new IOException("reset() not supported");
+        }
+
+        int getHash() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.Query;
+
+/**
+ * Names of the fetch plans (JPA entity graphs) declared on the entities.
+ *
+ * A fetch plan tells a query which associations to load with its results,
+ * so the same query can be used with different loading depths.
+ */
+public final class FetchPlans {
+
+    /**
+     * Loads only what the query and the mappings load; not an entity graph.
+     */
+    public static final String DEFAULT = "default";
+    public static final String AUTHOR_DOCUMENTS = "Author.documents";
+    public static final String DOCUMENT_AUTHOR = "Document.author";
+    public static final String DOCUMENT_AUTHOR_DOCUMENTS = "Document.author.documents";
+    public static final String USER_FAVORITE_AUTHORS = "User.favoriteAuthors";
+    public static final String USER_FAVORITE_AUTHORS_DOCUMENTS = "User.favoriteAuthors.documents";
+
+    private FetchPlans() {
+    }
+
+    /**
+     * Applies the fetch plan to the query.
+     *
+     * @param fetchPlan name of an entity graph, or {@link #DEFAULT}
+     * @throws IllegalArgumentException if there is no fetch plan with that name
+     */
+    public static <T> Query<T> apply(Session session, Query<T> query, String fetchPlan) {
+        if (!DEFAULT.equals(fetchPlan)) {
+            query.setHint(QueryHints.HINT_FETCHGRAPH, session.getEntityGraph(fetchPlan));
+        }
+        return query;
+    }
+}
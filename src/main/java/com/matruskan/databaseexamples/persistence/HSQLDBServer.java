@@ -50,11 +50,20 @@ public class HSQLDBServer {
     }
 
     public void delete() {
+        deleteFiles(databaseName);
+    }
+
+    /**
+     * Deletes the files of a database kept in db/, whether it was written by
+     * a server or in {@link DatabaseMode#FILE} mode.
+     */
+    public static void deleteFiles(String databaseName) {
         new File("db/" + databaseName).delete();
         new File("db/" + databaseName + ".tmp").delete();
         new File("db/" + databaseName + ".lck").delete();
         new File("db/" + databaseName + ".properties").delete();
         new File("db/" + databaseName + ".script").delete();
         new File("db/" + databaseName + ".log").delete();
+        new File("db/" + databaseName + ".lobs").delete();
     }
 }
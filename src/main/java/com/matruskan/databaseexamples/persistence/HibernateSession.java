@@ -27,11 +27,23 @@ import com.matruskan.databaseexamples.entities.Account;
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
 import com.matruskan.databaseexamples.entities.User;
+import java.net.URISyntaxException;
+import java.util.Properties;
+import java.util.function.ToIntFunction;
+import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.stat.Statistics;
 
 /**
  *
@@ -39,22 +51,65 @@ import org.hibernate.cfg.Configuration;
 public class HibernateSession {
 
     private final SessionFactory sessionFactory;
+    private final StatementCounter statementCounter = new StatementCounter();
 
     public HibernateSession() {
         Configuration cfg = buildConfiguration();
         sessionFactory = cfg.buildSessionFactory();
+        registerListeners();
     }
 
     public HibernateSession(String databaseName) {
+        this(databaseName, new Properties());
+    }
+
+    /**
+     * @param properties Hibernate settings that override hibernate.cfg.xml
+     */
+    public HibernateSession(String databaseName, Properties properties) {
+        this(databaseName, DatabaseMode.SERVER, properties);
+    }
+
+    public HibernateSession(String databaseName, DatabaseMode mode) {
+        this(databaseName, mode, new Properties());
+    }
+
+    /**
+     * @param mode whether the database is reached through the HSQLDBServer
+     * or runs in this JVM
+     * @param properties Hibernate settings that override hibernate.cfg.xml
+     */
+    public HibernateSession(String databaseName, DatabaseMode mode, Properties properties) {
         Configuration cfg = buildConfiguration();
-        cfg.setProperty(AvailableSettings.URL, "jdbc:hsqldb:hsql://localhost/" + databaseName);
+        cfg.setProperty(AvailableSettings.URL, mode.getUrl(databaseName));
+        cfg.addProperties(properties);
         sessionFactory = cfg.buildSessionFactory();
+        registerListeners();
     }
 
     public Session openSession() {
         return sessionFactory.openSession();
     }
 
+    /**
+     * Opens a session for read paths: entities are loaded read-only, so no
+     * snapshot is kept for dirty checking, and the session is never flushed.
+     */
+    public Session openReadOnlySession() {
+        Session session = sessionFactory.openSession();
+        makeReadOnly(session);
+        return session;
+    }
+
+    /**
+     * Opens a session without a persistence context, for large results that
+     * are read once. Lazy associations of the loaded entities cannot be
+     * initialized.
+     */
+    public StatelessSession openStatelessSession() {
+        return sessionFactory.openStatelessSession();
+    }
+
     public void closeSession() {
         if (sessionFactory.getCurrentSession().isOpen()) {
             sessionFactory.getCurrentSession().close();
@@ -76,6 +131,17 @@ public class HibernateSession {
         return currentSession;
     }
 
+    /**
+     * Same as {@link #openTransation()}, with the current session made
+     * read-only as in {@link #openReadOnlySession()}.
+     */
+    public Session openReadOnlyTransaction() {
+        Session currentSession = sessionFactory.getCurrentSession();
+        currentSession.beginTransaction();
+        makeReadOnly(currentSession);
+        return currentSession;
+    }
+
     public void commit() {
         sessionFactory.getCurrentSession().getTransaction().commit();
     }
@@ -84,12 +150,91 @@ public class HibernateSession {
         sessionFactory.getCurrentSession().getTransaction().rollback();
     }
 
+    private void makeReadOnly(Session session) {
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+    }
+
+    public PoolStatistics getPoolStatistics() {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class)
+                .unwrap(PooledConnectionProvider.class)
+                .getStatistics();
+    }
+
+    public StatementCounter getStatementCounter() {
+        return statementCounter;
+    }
+
+    public Statistics getStatistics() {
+        return sessionFactory.getStatistics();
+    }
+
+    private void registerListeners() {
+        AuthorDocumentsListener authorDocumentsListener = new AuthorDocumentsListener();
+        EventListenerRegistry registry = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, authorDocumentsListener);
+        registry.appendListeners(EventType.POST_UPDATE, authorDocumentsListener);
+        registry.appendListeners(EventType.POST_DELETE, authorDocumentsListener);
+    }
+
+    /**
+     * Maintenance: fills in the counter and latest Document of the Authors
+     * created before they existed, with {@link AuthorDocuments#backfill()}.
+     * The listener only keeps an Author right once it starts right, so run it
+     * once after upgrading a database.
+     *
+     * @return the number of Authors that were filled in
+     */
+    public int backfillAuthorDocuments() {
+        return inTransaction(AuthorDocuments::backfill);
+    }
+
+    /**
+     * Maintenance: fixes every Author whose counter or latest Document
+     * drifted, with {@link AuthorDocuments#reconcile()}.
+     *
+     * @return the number of Authors that were wrong
+     */
+    public int reconcileAuthorDocuments() {
+        return inTransaction(AuthorDocuments::reconcile);
+    }
+
+    private int inTransaction(ToIntFunction<AuthorDocuments> maintenance) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                int updated = maintenance.applyAsInt(new AuthorDocuments(session));
+                transaction.commit();
+                return updated;
+            } catch (RuntimeException ex) {
+                transaction.rollback();
+                throw ex;
+            }
+        }
+    }
+
     private Configuration buildConfiguration() throws HibernateException {
-        return new Configuration()
+        Configuration configuration = new Configuration()
                 .addAnnotatedClass(Account.class)
                 .addAnnotatedClass(Author.class)
                 .addAnnotatedClass(Document.class)
                 .addAnnotatedClass(User.class)
-                .configure();
+                .configure()
+                .setProperty(AvailableSettings.CONNECTION_PROVIDER, PooledConnectionProvider.class.getName())
+                .setProperty(ConfigSettings.CONFIG_URI, getResourceUri("/ehcache.xml"));
+        configuration.getProperties().put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+        return configuration;
+    }
+
+    private String getResourceUri(String resource) throws HibernateException {
+        try {
+            return HibernateSession.class.getResource(resource).toURI().toString();
+        } catch (URISyntaxException ex) {
+            throw new HibernateException("Invalid resource URI: " + resource, ex);
+        }
     }
 }
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+/**
+ * Bounded JDBC connection pool (backed by HikariCP) used instead of the
+ * Hibernate built-in pool, which hands out a single connection when
+ * {@code connection.pool_size} is 1.
+ *
+ * The pool is configured with the usual {@code hibernate.connection.*}
+ * settings plus the {@code hibernate.pool.*} settings declared here.
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+
+    public static final String MIN_SIZE = "hibernate.pool.min_size";
+    public static final String MAX_SIZE = "hibernate.pool.max_size";
+    public static final String CONNECTION_TIMEOUT = "hibernate.pool.connection_timeout";
+    public static final String IDLE_TIMEOUT = "hibernate.pool.idle_timeout";
+    public static final String VALIDATION_TIMEOUT = "hibernate.pool.validation_timeout";
+    public static final String LEAK_DETECTION_THRESHOLD = "hibernate.pool.leak_detection_threshold";
+
+    private final PoolStatistics statistics = new PoolStatistics();
+    private HikariDataSource dataSource;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("HibernateSession");
+        config.setDriverClassName((String) configurationValues.get(AvailableSettings.DRIVER));
+        config.setJdbcUrl((String) configurationValues.get(AvailableSettings.URL));
+        config.setUsername((String) configurationValues.get(AvailableSettings.USER));
+        config.setPassword((String) configurationValues.get(AvailableSettings.PASS));
+        config.setAutoCommit(ConfigurationHelper.getBoolean(AvailableSettings.AUTOCOMMIT, configurationValues, false));
+        config.setMinimumIdle(ConfigurationHelper.getInt(MIN_SIZE, configurationValues, 1));
+        config.setMaximumPoolSize(ConfigurationHelper.getInt(MAX_SIZE, configurationValues, 10));
+        config.setConnectionTimeout(ConfigurationHelper.getLong(CONNECTION_TIMEOUT, configurationValues, 30000));
+        config.setIdleTimeout(ConfigurationHelper.getLong(IDLE_TIMEOUT, configurationValues, 600000));
+        config.setValidationTimeout(ConfigurationHelper.getLong(VALIDATION_TIMEOUT, configurationValues, 5000));
+        config.setLeakDetectionThreshold(ConfigurationHelper.getLong(LEAK_DETECTION_THRESHOLD, configurationValues, 0));
+        config.setMetricsTrackerFactory(statistics.getMetricsTrackerFactory());
+        dataSource = new HikariDataSource(config);
+        statistics.setPool(dataSource.getHikariPoolMXBean());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection conn) throws SQLException {
+        conn.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    public PoolStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void stop() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * Wrapped declares the raw Class, so the parameter cannot be {@code Class<?>}
+     * without losing the override.
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        Class<?> type = unwrapType;
+        return type.isAssignableFrom(PooledConnectionProvider.class)
+                || type.isAssignableFrom(HikariDataSource.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(PooledConnectionProvider.class)) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(HikariDataSource.class)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements prepared by a SessionFactory, by statement type.
+ *
+ * Used to show how many queries each example issues, e.g. 1 select for
+ * {@code doListTitles} against N+1 selects for {@code dontListTitles}.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private final LongAdder selects = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder others = new LongAdder();
+
+    @Override
+    public String inspect(String sql) {
+        String statement = sql.trim().toLowerCase(Locale.ROOT);
+        if (statement.startsWith("select") || statement.startsWith("with")) {
+            selects.increment();
+        } else if (statement.startsWith("insert")) {
+            inserts.increment();
+        } else if (statement.startsWith("update")) {
+            updates.increment();
+        } else if (statement.startsWith("delete")) {
+            deletes.increment();
+        } else {
+            others.increment();
+        }
+        return sql;
+    }
+
+    public long getSelectCount() {
+        return selects.sum();
+    }
+
+    public long getInsertCount() {
+        return inserts.sum();
+    }
+
+    public long getUpdateCount() {
+        return updates.sum();
+    }
+
+    public long getDeleteCount() {
+        return deletes.sum();
+    }
+
+    /**
+     * Statements that are not selects, inserts, updates or deletes, e.g.
+     * sequence calls.
+     */
+    public long getOtherCount() {
+        return others.sum();
+    }
+
+    public long getTotalCount() {
+        return getSelectCount() + getInsertCount() + getUpdateCount() + getDeleteCount() + getOtherCount();
+    }
+
+    public void reset() {
+        selects.reset();
+        inserts.reset();
+        updates.reset();
+        deletes.reset();
+        others.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "StatementCounter{selects=" + getSelectCount()
+                + ", inserts=" + getInsertCount()
+                + ", updates=" + getUpdateCount()
+                + ", deletes=" + getDeleteCount()
+                + ", others=" + getOtherCount() + "}";
+    }
+}
@@ -25,15 +25,22 @@ package com.matruskan.databaseexamples;
 
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.persistence.BulkLoader;
+import com.matruskan.databaseexamples.persistence.AuthorDocuments;
 import com.matruskan.databaseexamples.persistence.HSQLDBServer;
 import com.matruskan.databaseexamples.persistence.HibernateSession;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static com.matruskan.databaseexamples.persistence.ExpectedStatements.expectStatements;
 import static org.junit.Assert.*;
 
 /**
@@ -44,7 +51,6 @@ public class InefficientComputationTest {
     private static final String TEST_DB = "InefficientComputationTest";
     private static HSQLDBServer hsqldbServer;
     HibernateSession hibernateSession;
-    long startTimestamp;
 
     public InefficientComputationTest() {
     }
@@ -53,19 +59,20 @@ public class InefficientComputationTest {
     public static void setUpClass() {
         hsqldbServer = new HSQLDBServer(TEST_DB);
         HibernateSession hibernateSession = new HibernateSession(TEST_DB);
-        Session session = hibernateSession.openTransation();
         Author author = new Author();
         author.setName("Matruskan");
-        session.save(author);
+        Set<Document> documents = new HashSet<>();
         for (int i = 0; i < 10000; i++) {
             Document document = new Document();
             document.setAuthor(author);
             document.setContent("No Content Yet");
             document.setTitle("InneficientComputation " + i + "nd Edition");
             document.setDate(new Date(System.currentTimeMillis() + i * 60000));
-            session.save(document);
+            documents.add(document);
         }
-        hibernateSession.commit();
+        author.setDocuments(documents);
+        new BulkLoader(hibernateSession).load(Arrays.asList(author));
+        hibernateSession.close();
     }
 
     @AfterClass
@@ -77,13 +84,10 @@ public class InefficientComputationTest {
     @Before
     public void setUp() {
         hibernateSession = new HibernateSession(TEST_DB);
-        startTimestamp = System.currentTimeMillis();
     }
 
     @After
     public void tearDown() {
-        long timeElapsed = System.currentTimeMillis() - startTimestamp;
-        System.out.println("Time elapsed: " + timeElapsed);
         hibernateSession.closeSession();
         hibernateSession.close();
     }
@@ -98,7 +102,10 @@ public class InefficientComputationTest {
         Author author = session.get(Author.class, 1l);
         InefficientComputation instance = new InefficientComputation(session);
         boolean expResult = true;
-        boolean result = instance.dontDocumentExists(author);
+        boolean result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.dontDocumentExists(author));
         assertEquals(expResult, result);
     }
 
@@ -109,7 +116,10 @@ public class InefficientComputationTest {
         Author author = session.get(Author.class, 1l);
         InefficientComputation instance = new InefficientComputation(session);
         boolean expResult = true;
-        boolean result = instance.doDocumentExists(author);
+        boolean result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.doDocumentExists(author));
         assertEquals(expResult, result);
     }
 
@@ -119,16 +129,136 @@ public class InefficientComputationTest {
         Session session = hibernateSession.openSession();
         Author author = session.get(Author.class, 1l);
         InefficientComputation instance = new InefficientComputation(session);
-        Document result = instance.dontMostRecentDocument(author);
+        Document result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.dontMostRecentDocument(author));
         assertEquals("InneficientComputation 9999nd Edition", result.getTitle());
     }
     @Test
     public void testDoMostRecentDocument() {
         System.out.println("doMostRecentDocument");
-        Session session = hibernateSession.openSession();
+        Session session = hibernateSession.openReadOnlySession();
         Author author = session.get(Author.class, 1l);
         InefficientComputation instance = new InefficientComputation(session);
-        Document result = instance.doMostRecentDocument(author);
+        Document result = expectStatements(hibernateSession)
+                .atMostSelects(1)
+                .updates(0)
+                .during(() -> instance.doMostRecentDocument(author));
+        assertEquals("InneficientComputation 9999nd Edition", result.getTitle());
+    }
+
+    @Test
+    public void testDocumentCounterFollowsWrites() {
+        System.out.println("documentCounterFollowsWrites");
+        long authorId = createAuthor("Counted Matruskan", 2);
+        assertEquals(2, countDocuments(authorId));
+
+        Session session = hibernateSession.openTransation();
+        Document document = new Document();
+        document.setAuthor(session.get(Author.class, authorId));
+        document.setTitle("InneficientComputation Draft");
+        document.setDate(new Date(0));
+        session.save(document);
+        hibernateSession.commit();
+        assertEquals(3, countDocuments(authorId));
+
+        session = hibernateSession.openTransation();
+        session.delete(session.get(Document.class, document.getId()));
+        hibernateSession.rollback();
+        assertEquals(3, countDocuments(authorId));
+
+        session = hibernateSession.openTransation();
+        session.delete(session.get(Document.class, document.getId()));
+        hibernateSession.commit();
+        assertEquals(2, countDocuments(authorId));
+    }
+
+    @Test
+    public void testReconcileAuthorDocuments() {
+        System.out.println("reconcileAuthorDocuments");
+        long authorId = createAuthor("Drifted Matruskan", 3);
+        Session session = hibernateSession.openTransation();
+        session.createQuery("update Author a set a.documentCount = 0, a.latestDocumentId = null"
+                + " where a.id = :id")
+                .setParameter("id", authorId)
+                .executeUpdate();
+        hibernateSession.commit();
+        session = hibernateSession.openTransation();
+        assertFalse(new InefficientComputation(session).doDocumentExists(session.get(Author.class, authorId)));
+        assertEquals(1, new AuthorDocuments(session).reconcile());
+        assertEquals(0, new AuthorDocuments(session).reconcile());
+        hibernateSession.commit();
+        assertEquals(3, countDocuments(authorId));
+    }
+
+    @Test
+    public void testBackfillAuthorDocuments() {
+        System.out.println("backfillAuthorDocuments");
+        long authorId = createAuthor("Uncounted Matruskan", 3);
+        hibernateSession.openTransation()
+                .createQuery("update Author a set a.documentCount = 0, a.latestDocumentId = null"
+                        + " where a.id = :id")
+                .setParameter("id", authorId)
+                .executeUpdate();
+        hibernateSession.commit();
+        assertEquals(0, countDocuments(authorId));
+        hibernateSession.close();
+        hibernateSession = new HibernateSession(TEST_DB);
+        // opening the database does not backfill
+        assertEquals(0, countDocuments(authorId));
+        assertTrue(hibernateSession.backfillAuthorDocuments() >= 1);
+        assertEquals(0, hibernateSession.backfillAuthorDocuments());
+        assertEquals(3, countDocuments(authorId));
+        try (Session session = hibernateSession.openSession()) {
+            Author author = session.get(Author.class, authorId);
+            assertEquals("Uncounted Matruskan 2",
+                    new InefficientComputation(session).doMostRecentDocument(author).getTitle());
+        }
+    }
+
+    @Test
+    public void testDoMostRecentDocumentIsCached() {
+        System.out.println("doMostRecentDocumentIsCached");
+        Statistics statistics = hibernateSession.getStatistics();
+        mostRecentDocument();
+        long hits = statistics.getQueryRegionStatistics(InefficientComputation.LOOKUP_CACHE_REGION).getHitCount();
+        Document result = mostRecentDocument();
         assertEquals("InneficientComputation 9999nd Edition", result.getTitle());
+        assertEquals(hits + 1, statistics.getQueryRegionStatistics(InefficientComputation.LOOKUP_CACHE_REGION).getHitCount());
+    }
+
+    /**
+     * Creates an Author apart from the shared fixture, for the tests that
+     * write.
+     */
+    private long createAuthor(String name, int documentCount) {
+        Author author = new Author();
+        author.setName(name);
+        Set<Document> documents = new HashSet<>();
+        for (int i = 0; i < documentCount; i++) {
+            Document document = new Document();
+            document.setAuthor(author);
+            document.setTitle(name + " " + i);
+            document.setDate(new Date(i * 60000L));
+            documents.add(document);
+        }
+        author.setDocuments(documents);
+        new BulkLoader(hibernateSession).load(Arrays.asList(author));
+        return author.getId();
+    }
+
+    private long countDocuments(long authorId) {
+        try (Session session = hibernateSession.openSession()) {
+            Author author = session.get(Author.class, authorId);
+            return new InefficientComputation(session).doCountDocuments(author);
+        }
+    }
+
+    private Document mostRecentDocument() {
+        try (Session session = hibernateSession.openSession()) {
+            Author author = session.get(Author.class, 1l);
+            return new InefficientComputation(session).doMostRecentDocument(author);
+        }
     }
 }
@@ -23,21 +23,32 @@
  */
 package com.matruskan.databaseexamples;
 
+import com.matruskan.databaseexamples.dto.LongIntColumns;
+import com.matruskan.databaseexamples.dto.TitlePage;
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.persistence.BulkLoader;
+import com.matruskan.databaseexamples.persistence.CollectionFetchMode;
+import com.matruskan.databaseexamples.persistence.FetchPlans;
 import com.matruskan.databaseexamples.persistence.HSQLDBServer;
 import com.matruskan.databaseexamples.persistence.HibernateSession;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.hibernate.Session;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static com.matruskan.databaseexamples.persistence.ExpectedStatements.expectStatements;
 import static org.junit.Assert.*;
 
 /**
@@ -45,12 +56,11 @@ import static org.junit.Assert.*;
  */
 public class InefficientDataAccessingTest {
 
-    private static final String TEST_DB = "InefficientComputationTest";
+    private static final String TEST_DB = "InefficientDataAccessingTest";
     private static final int NUMBER_OF_AUTHORS = 100;
     private static final int NUMBER_OF_DOCUMENTS = 100;
     private static HSQLDBServer hsqldbServer;
     HibernateSession hibernateSession;
-    long startTimestamp;
 
     public InefficientDataAccessingTest() {
     }
@@ -59,26 +69,28 @@ public class InefficientDataAccessingTest {
     public static void setUpClass() {
         hsqldbServer = new HSQLDBServer(TEST_DB);
         HibernateSession hibernateSession = new HibernateSession(TEST_DB);
-        Session session = hibernateSession.openTransation();
+        List<Author> authors = new ArrayList<>();
         for (int i = 0; i < NUMBER_OF_AUTHORS; i++) {
-            createAuthor("Matruskan " + i, NUMBER_OF_DOCUMENTS, "Inefficient Data Accessing " + i, session);
+            authors.add(createAuthor("Matruskan " + i, NUMBER_OF_DOCUMENTS, "Inefficient Data Accessing " + i));
         }
-        hibernateSession.commit();
-        hibernateSession.closeSession();
+        new BulkLoader(hibernateSession).load(authors);
+        hibernateSession.close();
     }
 
-    private static void createAuthor(String name, int numberOfDocuments, String documentTitle, Session session) {
+    private static Author createAuthor(String name, int numberOfDocuments, String documentTitle) {
         Author author = new Author();
         author.setName(name);
-        session.save(author);
+        Set<Document> documents = new HashSet<>();
         for (int i = 0; i < numberOfDocuments; i++) {
             Document document = new Document();
             document.setAuthor(author);
             document.setContent("No Content Yet");
             document.setTitle(documentTitle + " " + i + "nd Edition");
             document.setDate(new Date(System.currentTimeMillis() + i * 60000));
-            session.save(document);
+            documents.add(document);
         }
+        author.setDocuments(documents);
+        return author;
     }
 
     @AfterClass
@@ -90,13 +102,10 @@ public class InefficientDataAccessingTest {
     @Before
     public void setUp() {
         hibernateSession = new HibernateSession(TEST_DB);
-        startTimestamp = System.currentTimeMillis();
     }
 
     @After
     public void tearDown() {
-        long timeElapsed = System.currentTimeMillis() - startTimestamp;
-        System.out.println("Time elapsed: " + timeElapsed);
         hibernateSession.closeSession();
         hibernateSession.close();
     }
@@ -124,7 +133,10 @@ public class InefficientDataAccessingTest {
     public void testDontListTitles() {
         System.out.println("dontListTitles");
         InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
-        List<String> result = instance.dontListTitles();
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1 + NUMBER_OF_AUTHORS)
+                .updates(0)
+                .during(() -> instance.dontListTitles());
         assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
     }
 
@@ -134,11 +146,103 @@ public class InefficientDataAccessingTest {
     @Test
     public void testDoListTitles() {
         System.out.println("doListTitles");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openReadOnlySession());
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.doListTitles());
+        assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
+    }
+
+    /**
+     * Test of doListTitlesWithProjection method, of class
+     * InefficientDataAccessing.
+     */
+    @Test
+    public void testDoListTitlesWithProjection() {
+        System.out.println("doListTitlesWithProjection");
+        Session session = hibernateSession.openSession();
+        InefficientDataAccessing instance = new InefficientDataAccessing(session);
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.doListTitlesWithProjection());
+        assertEquals(0, session.getStatistics().getEntityCount());
+        assertEquals(new HashSet<>(instance.doListTitles()), new HashSet<>(result));
+        assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
+    }
+
+    /**
+     * Test of doListTitles method, of class InefficientDataAccessing, with
+     * batch fetching.
+     */
+    @Test
+    public void testDoListTitlesWithBatchFetch() {
+        System.out.println("doListTitlesWithBatchFetch");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+        int batchSize = 30;
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1 + (NUMBER_OF_AUTHORS + batchSize - 1) / batchSize)
+                .updates(0)
+                .during(() -> instance.doListTitles(CollectionFetchMode.BATCH, batchSize));
+        assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
+    }
+
+    /**
+     * Test of doListTitles method, of class InefficientDataAccessing, with
+     * subselect fetching.
+     */
+    @Test
+    public void testDoListTitlesWithSubselectFetch() {
+        System.out.println("doListTitlesWithSubselectFetch");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+        List<String> result = expectStatements(hibernateSession)
+                .selects(2)
+                .updates(0)
+                .during(() -> instance.doListTitles(CollectionFetchMode.SUBSELECT, 1));
+        assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
+    }
+
+    /**
+     * Test of listTitles method, of class InefficientDataAccessing, with a
+     * fetch plan.
+     */
+    @Test
+    public void testListTitlesWithFetchPlan() {
+        System.out.println("listTitlesWithFetchPlan");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.listTitles(FetchPlans.AUTHOR_DOCUMENTS));
+        assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
+    }
+
+    /**
+     * Test of listTitles method, of class InefficientDataAccessing, without a
+     * fetch plan.
+     */
+    @Test
+    public void testListTitlesWithDefaultFetchPlan() {
+        System.out.println("listTitlesWithDefaultFetchPlan");
         InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
-        List<String> result = instance.doListTitles();
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1 + NUMBER_OF_AUTHORS)
+                .updates(0)
+                .during(() -> instance.listTitles(FetchPlans.DEFAULT));
         assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
     }
 
+    /**
+     * Test of listTitles method, of class InefficientDataAccessing, with a
+     * fetch plan that does not exist.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testListTitlesWithUnknownFetchPlan() {
+        System.out.println("listTitlesWithUnknownFetchPlan");
+        new InefficientDataAccessing(hibernateSession.openSession()).listTitles("Author.unknown");
+    }
+
     /**
      * Test of dontCreateHashForDocumentsContent method, of class
      * InefficientDataAccessing.
@@ -147,7 +251,11 @@ public class InefficientDataAccessingTest {
     public void testDontCreateHashForDocumentsContent() {
         System.out.println("dontCreateHashForDocumentsContent");
         InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
-        Map<Long, Integer> result = instance.dontCreateHashForDocumentsContent();
+        // Document.author is eagerly loaded: one extra select per author
+        Map<Long, Integer> result = expectStatements(hibernateSession)
+                .selects(1 + NUMBER_OF_AUTHORS)
+                .updates(0)
+                .during(() -> instance.dontCreateHashForDocumentsContent());
         assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
     }
 
@@ -159,8 +267,153 @@ public class InefficientDataAccessingTest {
     public void testDoCreateHashForDocumentsContent() {
         System.out.println("doCreateHashForDocumentsContent");
         InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
-        Map<Long, Integer> result = instance.doCreateHashForDocumentsContent();
+        Map<Long, Integer> result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.doCreateHashForDocumentsContent());
         assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, result.size());
     }
 
+    /**
+     * Test of streamHashForDocumentsContent method, of class
+     * InefficientDataAccessing.
+     */
+    @Test
+    public void testStreamHashForDocumentsContent() {
+        System.out.println("streamHashForDocumentsContent");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+        Map<Long, Integer> expected = instance.doCreateHashForDocumentsContent();
+        Map<Long, Integer> result = new HashMap<>();
+        expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.streamHashForDocumentsContent(100, result::put));
+        assertEquals(expected, result);
+    }
+
+    /**
+     * Test of doReadContentDigests method, of class InefficientDataAccessing.
+     */
+    @Test
+    public void testDoReadContentDigests() {
+        System.out.println("doReadContentDigests");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+        Map<Long, Integer> expected = instance.doCreateHashForDocumentsContent();
+        Map<Long, Integer> result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.doReadContentDigests());
+        assertEquals(expected, result);
+        Map<Long, Integer> streamed = new HashMap<>();
+        instance.streamContentDigests(100, streamed::put);
+        assertEquals(expected, streamed);
+    }
+
+    /**
+     * Test of doReadContentDigestColumns method, of class
+     * InefficientDataAccessing.
+     */
+    @Test
+    public void testDoReadContentDigestColumns() {
+        System.out.println("doReadContentDigestColumns");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+        Map<Long, Integer> expected = instance.doReadContentDigests();
+        LongIntColumns result = expectStatements(hibernateSession)
+                .selects(1)
+                .during(() -> instance.doReadContentDigestColumns(100));
+        assertEquals(expected.size(), result.size());
+        Map<Long, Integer> columns = new HashMap<>();
+        result.forEach(columns::put);
+        assertEquals(expected, columns);
+    }
+
+    /**
+     * Test of the content digest kept up to date when a Document changes.
+     */
+    @Test
+    public void testContentDigestFollowsContent() {
+        System.out.println("contentDigestFollowsContent");
+        Session session = hibernateSession.openTransation();
+        Document document = session
+                .createQuery("select d from Document d order by d.id", Document.class)
+                .setMaxResults(1)
+                .getSingleResult();
+        String content = document.getContent();
+        document.setContent("Changed Content");
+        hibernateSession.commit();
+        try {
+            InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+            assertEquals(Integer.valueOf("Changed Content".hashCode()),
+                    instance.doReadContentDigests().get(document.getId()));
+        } finally {
+            hibernateSession.openTransation().get(Document.class, document.getId()).setContent(content);
+            hibernateSession.commit();
+        }
+    }
+
+    /**
+     * Test of the content digests of Documents written before the digest
+     * existed, which are hashed from their content.
+     */
+    @Test
+    public void testContentDigestsWithoutDigest() {
+        System.out.println("contentDigestsWithoutDigest");
+        Session session = hibernateSession.openTransation();
+        Long documentId = session
+                .createQuery("select min(d.id) from Document d", Long.class)
+                .getSingleResult();
+        Integer digest = session.get(Document.class, documentId).getContentDigest();
+        session.createQuery("update Document d set d.contentDigest = null where d.id = :id")
+                .setParameter("id", documentId)
+                .executeUpdate();
+        hibernateSession.commit();
+        try {
+            InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+            Map<Long, Integer> expected = instance.doCreateHashForDocumentsContent();
+            Map<Long, Integer> result = expectStatements(hibernateSession)
+                    .selects(1)
+                    .during(() -> instance.doReadContentDigests());
+            assertEquals(expected, result);
+            Map<Long, Integer> streamed = new HashMap<>();
+            instance.streamContentDigests(100, streamed::put);
+            assertEquals(expected, streamed);
+            Map<Long, Integer> columns = new HashMap<>();
+            instance.doReadContentDigestColumns(100).forEach(columns::put);
+            assertEquals(expected, columns);
+        } finally {
+            hibernateSession.openTransation()
+                    .createQuery("update Document d set d.contentDigest = :digest where d.id = :id")
+                    .setParameter("digest", digest)
+                    .setParameter("id", documentId)
+                    .executeUpdate();
+            hibernateSession.commit();
+        }
+    }
+
+    /**
+     * Test of listTitlePage method, of class InefficientDataAccessing.
+     */
+    @Test
+    public void testListTitlePage() {
+        System.out.println("listTitlePage");
+        InefficientDataAccessing instance = new InefficientDataAccessing(hibernateSession.openSession());
+        int pageSize = 333;
+        List<String> titles = new ArrayList<>();
+        TitlePage page = instance.listTitlePage(pageSize);
+        titles.addAll(page.getTitles());
+        while (page.hasNextPage()) {
+            TitlePage previous = page;
+            page = expectStatements(hibernateSession)
+                    .selects(1)
+                    .during(() -> instance.listTitlePage(previous.getNextPageToken(), pageSize));
+            assertTrue(page.getTitles().size() <= pageSize);
+            titles.addAll(page.getTitles());
+        }
+        assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, titles.size());
+        List<String> unpaged = instance.doListTitles();
+        Collections.sort(titles);
+        Collections.sort(unpaged);
+        assertEquals(unpaged, titles);
+    }
+
 }
@@ -0,0 +1,329 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.persistence.BulkLoader;
+import com.matruskan.databaseexamples.persistence.AuthorDocuments;
+import com.matruskan.databaseexamples.persistence.HSQLDBServer;
+import com.matruskan.databaseexamples.persistence.HibernateSession;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static com.matruskan.databaseexamples.persistence.ExpectedStatements.expectStatements;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class InefficientUpdatingTest {
+
+    private static final String TEST_DB = "InefficientUpdatingTest";
+    private static final int NUMBER_OF_DOCUMENTS = 100;
+    private static HSQLDBServer hsqldbServer;
+    HibernateSession hibernateSession;
+    Author author;
+    Author otherAuthor;
+
+    public InefficientUpdatingTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        hsqldbServer = new HSQLDBServer(TEST_DB);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        hsqldbServer.stop();
+        hsqldbServer.delete();
+    }
+
+    @Before
+    public void setUp() {
+        hibernateSession = new HibernateSession(TEST_DB);
+        author = createAuthor("Matruskan");
+        otherAuthor = createAuthor("Other");
+        new BulkLoader(hibernateSession).load(Arrays.asList(author, otherAuthor));
+    }
+
+    @After
+    public void tearDown() {
+        hibernateSession.closeSession();
+        hibernateSession.close();
+    }
+
+    @Test
+    public void testDontRedateDocuments() {
+        System.out.println("dontRedateDocuments");
+        Date date = new Date(0);
+        Session session = hibernateSession.openTransation();
+        Author managedAuthor = session.get(Author.class, author.getId());
+        InefficientUpdating instance = new InefficientUpdating(session);
+        expectStatements(hibernateSession)
+                .selects(1)
+                .updates(NUMBER_OF_DOCUMENTS)
+                .during(() -> instance.dontRedateDocuments(managedAuthor, date));
+        hibernateSession.commit();
+        assertDocumentsDatedAt(date);
+    }
+
+    @Test
+    public void testDoRedateDocuments() {
+        System.out.println("doRedateDocuments");
+        Date date = new Date(0);
+        Session session = hibernateSession.openTransation();
+        Document loaded = loadDocuments(session, author).get(0);
+        InefficientUpdating instance = new InefficientUpdating(session);
+        int updated = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(2)
+                .during(() -> instance.doRedateDocuments(author, date));
+        assertEquals(NUMBER_OF_DOCUMENTS, updated);
+        assertFalse(session.contains(loaded));
+        assertEquals(date.getTime(), session.get(Document.class, loaded.getId()).getDate().getTime());
+        hibernateSession.commit();
+        assertDocumentsDatedAt(date);
+    }
+
+    @Test
+    public void testDontReassignDocuments() {
+        System.out.println("dontReassignDocuments");
+        Session session = hibernateSession.openTransation();
+        Author managedAuthor = session.get(Author.class, author.getId());
+        InefficientUpdating instance = new InefficientUpdating(session);
+        expectStatements(hibernateSession)
+                .selects(1)
+                .updates(NUMBER_OF_DOCUMENTS)
+                .during(() -> instance.dontReassignDocuments(managedAuthor, otherAuthor));
+        hibernateSession.commit();
+        assertDocumentCounts(0, 2 * NUMBER_OF_DOCUMENTS);
+    }
+
+    @Test
+    public void testDoReassignDocuments() {
+        System.out.println("doReassignDocuments");
+        Session session = hibernateSession.openTransation();
+        Author managedAuthor = session.get(Author.class, author.getId());
+        assertEquals(NUMBER_OF_DOCUMENTS, managedAuthor.getDocuments().size());
+        InefficientUpdating instance = new InefficientUpdating(session);
+        int updated = expectStatements(hibernateSession)
+                .selects(2)
+                .updates(3)
+                .during(() -> instance.doReassignDocuments(managedAuthor, otherAuthor));
+        assertEquals(NUMBER_OF_DOCUMENTS, updated);
+        assertTrue(managedAuthor.getDocuments().isEmpty());
+        hibernateSession.commit();
+        assertDocumentCounts(0, 2 * NUMBER_OF_DOCUMENTS);
+    }
+
+    @Test
+    public void testDoRedateDocumentsMatchingFilter() {
+        System.out.println("doRedateDocumentsMatchingFilter");
+        Date date = new Date(0);
+        Map<Long, Long> versions = new HashMap<>();
+        try (Session check = hibernateSession.openSession()) {
+            for (Author owner : Arrays.asList(author, otherAuthor)) {
+                loadDocuments(check, owner).forEach(document -> versions.put(document.getId(), document.getVersion()));
+            }
+        }
+        Session session = hibernateSession.openTransation();
+        InefficientUpdating instance = new InefficientUpdating(session);
+        // the first Document of each Author of this test
+        int updated = instance.doRedateDocuments((document, builder) -> builder.and(
+                builder.equal(document.get("title"), "InefficientUpdating 0"),
+                document.get("author").get("id").in(author.getId(), otherAuthor.getId())), date);
+        hibernateSession.commit();
+        assertEquals(2, updated);
+        try (Session check = hibernateSession.openSession()) {
+            for (Author owner : Arrays.asList(author, otherAuthor)) {
+                for (Document document : loadDocuments(check, owner)) {
+                    boolean redated = document.getTitle().equals("InefficientUpdating 0");
+                    assertEquals(redated, document.getDate().getTime() == date.getTime());
+                    assertEquals(versions.get(document.getId()) + (redated ? 1 : 0), document.getVersion());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDontDeleteDocuments() {
+        System.out.println("dontDeleteDocuments");
+        Session session = hibernateSession.openTransation();
+        Author managedAuthor = session.get(Author.class, author.getId());
+        InefficientUpdating instance = new InefficientUpdating(session);
+        expectStatements(hibernateSession)
+                .selects(1)
+                .deletes(NUMBER_OF_DOCUMENTS)
+                .during(() -> instance.dontDeleteDocuments(managedAuthor));
+        hibernateSession.commit();
+        assertDocumentCounts(0, NUMBER_OF_DOCUMENTS);
+    }
+
+    @Test
+    public void testDoDeleteDocuments() {
+        System.out.println("doDeleteDocuments");
+        Session session = hibernateSession.openTransation();
+        Document loaded = loadDocuments(session, author).get(0);
+        InefficientUpdating instance = new InefficientUpdating(session);
+        int deleted = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(1)
+                .deletes(1)
+                .during(() -> instance.doDeleteDocuments(author));
+        assertEquals(NUMBER_OF_DOCUMENTS, deleted);
+        assertFalse(session.contains(loaded));
+        assertNull(session.get(Document.class, loaded.getId()));
+        hibernateSession.commit();
+        assertDocumentCounts(0, NUMBER_OF_DOCUMENTS);
+    }
+
+    @Test
+    public void testDontRenameDocuments() {
+        System.out.println("dontRenameDocuments");
+        Session session = hibernateSession.openTransation();
+        session.setCacheMode(CacheMode.IGNORE);
+        Map<Long, String> titles = renamedTitles();
+        InefficientUpdating instance = new InefficientUpdating(session);
+        expectStatements(hibernateSession)
+                .selects(NUMBER_OF_DOCUMENTS)
+                .updates(NUMBER_OF_DOCUMENTS)
+                .during(() -> instance.dontRenameDocuments(titles));
+        hibernateSession.commit();
+        assertDocumentsTitled(titles);
+    }
+
+    @Test
+    public void testDoRenameDocuments() {
+        System.out.println("doRenameDocuments");
+        Session session = hibernateSession.openTransation();
+        Map<Long, String> titles = renamedTitles();
+        Document loaded = session.get(Document.class, titles.keySet().iterator().next());
+        InefficientUpdating instance = new InefficientUpdating(session);
+        int updated = expectStatements(hibernateSession)
+                .selects(0)
+                .updates(NUMBER_OF_DOCUMENTS / 10)
+                .during(() -> instance.doRenameDocuments(titles, 10));
+        assertEquals(NUMBER_OF_DOCUMENTS, updated);
+        assertFalse(session.contains(loaded));
+        for (Map.Entry<Long, String> title : titles.entrySet()) {
+            assertEquals(title.getValue(), session.get(Document.class, title.getKey()).getTitle());
+        }
+        hibernateSession.commit();
+        assertDocumentsTitled(titles);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDoRenameDocumentsRejectsEmptyBatches() {
+        System.out.println("doRenameDocumentsRejectsEmptyBatches");
+        Session session = hibernateSession.openTransation();
+        try {
+            new InefficientUpdating(session).doRenameDocuments(renamedTitles(), 0);
+        } finally {
+            hibernateSession.rollback();
+        }
+    }
+
+    @Test
+    public void testDoDeleteDocumentsKeepsNamesakes() {
+        System.out.println("doDeleteDocumentsKeepsNamesakes");
+        Author namesake = createAuthor(author.getName());
+        new BulkLoader(hibernateSession).load(Arrays.asList(namesake));
+        Session session = hibernateSession.openTransation();
+        Document kept = loadDocuments(session, namesake).get(0);
+        new InefficientUpdating(session).doDeleteDocuments(author);
+        assertTrue(session.contains(kept));
+        hibernateSession.commit();
+    }
+
+    private Map<Long, String> renamedTitles() {
+        Map<Long, String> titles = new HashMap<>();
+        try (Session session = hibernateSession.openSession()) {
+            for (Document document : loadDocuments(session, author)) {
+                titles.put(document.getId(), "Renamed " + document.getId());
+            }
+        }
+        return titles;
+    }
+
+    private Author createAuthor(String name) {
+        Author created = new Author();
+        created.setName(name);
+        Set<Document> documents = new HashSet<>();
+        for (int i = 0; i < NUMBER_OF_DOCUMENTS; i++) {
+            Document document = new Document();
+            document.setAuthor(created);
+            document.setContent("No Content Yet");
+            document.setTitle("InefficientUpdating " + i);
+            document.setDate(new Date());
+            documents.add(document);
+        }
+        created.setDocuments(documents);
+        return created;
+    }
+
+    private List<Document> loadDocuments(Session session, Author owner) {
+        return session.createQuery("select d from Document d where d.author.id = :id", Document.class)
+                .setParameter("id", owner.getId())
+                .getResultList();
+    }
+
+    private void assertDocumentsDatedAt(Date date) {
+        try (Session session = hibernateSession.openSession()) {
+            for (Document document : loadDocuments(session, author)) {
+                assertEquals(date.getTime(), document.getDate().getTime());
+            }
+        }
+    }
+
+    private void assertDocumentsTitled(Map<Long, String> titles) {
+        try (Session session = hibernateSession.openSession()) {
+            for (Document document : loadDocuments(session, author)) {
+                assertEquals(titles.get(document.getId()), document.getTitle());
+            }
+        }
+    }
+
+    private void assertDocumentCounts(int authorDocuments, int otherAuthorDocuments) {
+        try (Session session = hibernateSession.openSession()) {
+            assertEquals(authorDocuments, loadDocuments(session, author).size());
+            assertEquals(otherAuthorDocuments, loadDocuments(session, otherAuthor).size());
+            AuthorDocuments counters = new AuthorDocuments(session);
+            assertEquals(authorDocuments, counters.count(author));
+            assertEquals(otherAuthorDocuments, counters.count(otherAuthor));
+        }
+    }
+}
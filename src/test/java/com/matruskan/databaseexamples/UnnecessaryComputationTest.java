@@ -23,21 +23,31 @@
  */
 package com.matruskan.databaseexamples;
 
+import com.matruskan.databaseexamples.control.DailyNewsletterJob;
+import com.matruskan.databaseexamples.control.DailyNewsletterReport;
+import com.matruskan.databaseexamples.control.InMemoryNewsletterTransport;
+import com.matruskan.databaseexamples.control.NewsletterDispatcher;
+import com.matruskan.databaseexamples.control.NewsletterRenderCache;
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
 import com.matruskan.databaseexamples.entities.User;
+import com.matruskan.databaseexamples.persistence.BulkLoader;
+import com.matruskan.databaseexamples.persistence.FetchPlans;
 import com.matruskan.databaseexamples.persistence.HSQLDBServer;
 import com.matruskan.databaseexamples.persistence.HibernateSession;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static com.matruskan.databaseexamples.persistence.ExpectedStatements.expectStatements;
 import static org.junit.Assert.*;
 
 /**
@@ -46,9 +56,10 @@ import static org.junit.Assert.*;
 public class UnnecessaryComputationTest {
 
     private static final String TEST_DB = "UnnecessaryComputationTest";
+    private static final int NUMBER_OF_DOCUMENTS = 100;
+    private static final int NUMBER_OF_USERS = 100;
     private static HSQLDBServer hsqldbServer;
     HibernateSession hibernateSession;
-    long startTimestamp;
 
     public UnnecessaryComputationTest() {
     }
@@ -57,25 +68,28 @@ public class UnnecessaryComputationTest {
     public static void setUpClass() {
         hsqldbServer = new HSQLDBServer(TEST_DB);
         HibernateSession hibernateSession = new HibernateSession(TEST_DB);
-        Session session = hibernateSession.openTransation();
         Author author = new Author();
         author.setName("Matruskan");
-        session.save(author);
-        for (int i = 0; i < 100; i++) {
+        Set<Document> documents = new HashSet<>();
+        for (int i = 0; i < NUMBER_OF_DOCUMENTS; i++) {
             Document document = new Document();
             document.setAuthor(author);
             document.setContent("No Content Yet");
             document.setTitle("UnnecessaryComputation " + i + "nd Edition");
             document.setDate(new Date(System.currentTimeMillis() + i * 60000));
-            session.save(document);
+            documents.add(document);
         }
+        author.setDocuments(documents);
+        new BulkLoader(hibernateSession).load(Arrays.asList(author));
+        Session session = hibernateSession.openTransation();
         Set<Author> favoriteAuthors = new HashSet<>(Arrays.asList(author));
-        for (int i = 0; i < 100; i++) {
+        for (int i = 0; i < NUMBER_OF_USERS; i++) {
             User user = new User();
             user.setFavoriteAuthors(favoriteAuthors);
             session.save(user);
         }
         hibernateSession.commit();
+        hibernateSession.close();
     }
 
     @AfterClass
@@ -87,13 +101,10 @@ public class UnnecessaryComputationTest {
     @Before
     public void setUp() {
         hibernateSession = new HibernateSession(TEST_DB);
-        startTimestamp = System.currentTimeMillis();
     }
 
     @After
     public void tearDown() {
-        long timeElapsed = System.currentTimeMillis() - startTimestamp;
-        System.out.println("Time elapsed: " + timeElapsed);
         hibernateSession.closeSession();
         hibernateSession.close();
     }
@@ -108,7 +119,10 @@ public class UnnecessaryComputationTest {
         Session session = hibernateSession.openSession();
         Author author = session.get(Author.class, 1l);
         UnnecessaryComputation instance = new UnnecessaryComputation(session);
-        instance.dontSendNewsletterAboutRecentDocuments(author);
+        expectStatements(hibernateSession)
+                .selects(2 + NUMBER_OF_DOCUMENTS)
+                .updates(0)
+                .during(() -> instance.dontSendNewsletterAboutRecentDocuments(author));
     }
 
     /**
@@ -121,6 +135,136 @@ public class UnnecessaryComputationTest {
         Session session = hibernateSession.openSession();
         Author author = session.get(Author.class, 1l);
         UnnecessaryComputation instance = new UnnecessaryComputation(session);
-        instance.doSendNewsLetterAboutRecentDocuments(author);
+        expectStatements(hibernateSession)
+                .selects(3)
+                .updates(0)
+                .during(() -> instance.doSendNewsLetterAboutRecentDocuments(author));
+    }
+
+    /**
+     * Test of doSendNewsLetterAboutRecentDocuments method, of class
+     * UnnecessaryComputation, with the Newsletters sent after the session is
+     * closed.
+     */
+    @Test
+    public void testDoSendNewsLetterAboutRecentDocumentsWithDispatcher() {
+        System.out.println("doSendNewsLetterAboutRecentDocumentsWithDispatcher");
+        InMemoryNewsletterTransport transport = new InMemoryNewsletterTransport();
+        List<User> users;
+        try (NewsletterDispatcher dispatcher = new NewsletterDispatcher(transport)) {
+            try (Session session = hibernateSession.openSession()) {
+                Author author = session.get(Author.class, 1l);
+                UnnecessaryComputation instance = new UnnecessaryComputation(session, dispatcher);
+                expectStatements(hibernateSession)
+                        .selects(3)
+                        .during(() -> instance.doSendNewsLetterAboutRecentDocuments(author));
+                users = instance.loadUsersWhoFavoritedAuthor(author, FetchPlans.DEFAULT);
+            }
+        }
+        assertEquals(NUMBER_OF_DOCUMENTS * NUMBER_OF_USERS, transport.getDeliveryCount());
+        for (User user : users) {
+            assertEquals(NUMBER_OF_DOCUMENTS, transport.getInbox(user.getId()).size());
+        }
+    }
+
+    /**
+     * Test of doSendNewsLetterAboutRecentDocuments method, of class
+     * UnnecessaryComputation, rendering each Newsletter once.
+     */
+    @Test
+    public void testNewslettersAreRenderedOnce() {
+        System.out.println("newslettersAreRenderedOnce");
+        InMemoryNewsletterTransport transport = new InMemoryNewsletterTransport();
+        NewsletterRenderCache renderCache = new NewsletterRenderCache();
+        Session session = hibernateSession.openSession();
+        Author author = session.get(Author.class, 1l);
+        NewsletterDispatcher dispatcher = NewsletterDispatcher.inline(transport);
+        UnnecessaryComputation instance = new UnnecessaryComputation(session, dispatcher, renderCache);
+        expectStatements(hibernateSession)
+                .selects(3)
+                .during(() -> instance.doSendNewsLetterAboutRecentDocuments(author));
+        // every rendering is cached: the content is not read again
+        expectStatements(hibernateSession)
+                .selects(1 + NUMBER_OF_DOCUMENTS)
+                .during(() -> instance.dontSendNewsletterAboutRecentDocuments(author));
+        assertEquals(NUMBER_OF_DOCUMENTS, renderCache.getMisses());
+        assertEquals(NUMBER_OF_DOCUMENTS, renderCache.getHits());
+        assertEquals(2 * NUMBER_OF_DOCUMENTS * NUMBER_OF_USERS, transport.getDeliveryCount());
+    }
+
+    /**
+     * Test of run method, of class DailyNewsletterJob.
+     */
+    @Test
+    public void testDailyNewsletterJob() {
+        System.out.println("dailyNewsletterJob");
+        InMemoryNewsletterTransport transport = new InMemoryNewsletterTransport();
+        Session session = hibernateSession.openSession();
+        DailyNewsletterJob job = new DailyNewsletterJob(session, NewsletterDispatcher.inline(transport));
+        DailyNewsletterReport report = expectStatements(hibernateSession)
+                .selects(3)
+                .updates(0)
+                .during(() -> job.run());
+        assertEquals(3, report.getQueries());
+        assertEquals(NUMBER_OF_DOCUMENTS, report.getDocuments());
+        assertEquals(NUMBER_OF_USERS, report.getFollowerRows());
+        assertEquals(NUMBER_OF_DOCUMENTS * NUMBER_OF_USERS, report.getDeliveries());
+        assertEquals(NUMBER_OF_DOCUMENTS * NUMBER_OF_USERS, transport.getDeliveryCount());
+    }
+
+    /**
+     * Test of run method, of class DailyNewsletterJob, with the Newsletters
+     * already rendered, and rendered again once a Document is edited.
+     */
+    @Test
+    public void testDailyNewsletterJobReadsOnlyStaleContent() {
+        System.out.println("dailyNewsletterJobReadsOnlyStaleContent");
+        NewsletterRenderCache renderCache = new NewsletterRenderCache();
+        Session session = hibernateSession.openSession();
+        DailyNewsletterJob job = new DailyNewsletterJob(session, NewsletterDispatcher.inline((newsletter, recipients) -> { }), renderCache);
+        job.run();
+        Long documentId = session.createQuery("select min(d.id) from Document d", Long.class).getSingleResult();
+        session.clear();
+        DailyNewsletterReport report = expectStatements(hibernateSession)
+                .selects(2)
+                .during(() -> job.run());
+        assertEquals(2, report.getQueries());
+        assertEquals(NUMBER_OF_DOCUMENTS, renderCache.getMisses());
+        session.clear();
+        Document edited = hibernateSession.openTransation().get(Document.class, documentId);
+        String content = edited.getContent();
+        edited.setContent("Edited");
+        hibernateSession.commit();
+        try {
+            session.clear();
+            report = expectStatements(hibernateSession)
+                    .selects(3)
+                    .during(() -> job.run());
+            assertEquals(3, report.getQueries());
+            assertEquals(NUMBER_OF_DOCUMENTS + 1, renderCache.getMisses());
+        } finally {
+            session.clear();
+            hibernateSession.openTransation().get(Document.class, documentId).setContent(content);
+            hibernateSession.commit();
+        }
+    }
+
+    /**
+     * Test of loadUsersWhoFavoritedAuthor method, of class
+     * UnnecessaryComputation, with a fetch plan.
+     */
+    @Test
+    public void testLoadUsersWhoFavoritedAuthorWithFetchPlan() {
+        System.out.println("loadUsersWhoFavoritedAuthorWithFetchPlan");
+        Session session = hibernateSession.openSession();
+        Author author = session.get(Author.class, 1l);
+        UnnecessaryComputation instance = new UnnecessaryComputation(session);
+        List<User> result = expectStatements(hibernateSession)
+                .selects(1)
+                .during(() -> instance.loadUsersWhoFavoritedAuthor(author, FetchPlans.USER_FAVORITE_AUTHORS));
+        assertEquals(NUMBER_OF_USERS, result.size());
+        for (User user : result) {
+            assertTrue(Hibernate.isInitialized(user.getFavoriteAuthors()));
+        }
     }
 }
@@ -24,15 +24,17 @@
 package com.matruskan.databaseexamples;
 
 import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.persistence.BulkLoader;
 import com.matruskan.databaseexamples.persistence.HSQLDBServer;
 import com.matruskan.databaseexamples.persistence.HibernateSession;
+import java.util.ArrayList;
 import java.util.List;
-import org.hibernate.Session;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import static com.matruskan.databaseexamples.persistence.ExpectedStatements.expectStatements;
 import static org.junit.Assert.*;
 
 /**
@@ -45,7 +47,6 @@ public class UnnecessaryDataRetrievalTest {
     private static final int NUMBER_OF_AUTHORS = 10000;
     private static HSQLDBServer hsqldbServer;
     HibernateSession hibernateSession;
-    long startTimestamp;
 
     public UnnecessaryDataRetrievalTest() {
     }
@@ -54,14 +55,14 @@ public class UnnecessaryDataRetrievalTest {
     public static void setUpClass() {
         hsqldbServer = new HSQLDBServer(TEST_DB);
         HibernateSession hibernateSession = new HibernateSession(TEST_DB);
-        Session session = hibernateSession.openTransation();
+        List<Author> authors = new ArrayList<>();
         for (int i = 0; i < NUMBER_OF_AUTHORS; i++) {
             Author author = new Author();
             author.setName("Matruskan " + i);
-            session.save(author);
+            authors.add(author);
         }
-        hibernateSession.commit();
-        hibernateSession.closeSession();
+        new BulkLoader(hibernateSession).load(authors);
+        hibernateSession.close();
     }
 
     @AfterClass
@@ -73,13 +74,10 @@ public class UnnecessaryDataRetrievalTest {
     @Before
     public void setUp() {
         hibernateSession = new HibernateSession(TEST_DB);
-        startTimestamp = System.currentTimeMillis();
     }
 
     @After
     public void tearDown() {
-        long timeElapsed = System.currentTimeMillis() - startTimestamp;
-        System.out.println("Time elapsed: " + timeElapsed);
         hibernateSession.closeSession();
         hibernateSession.close();
     }
@@ -91,7 +89,10 @@ public class UnnecessaryDataRetrievalTest {
     public void testDontGetAuthorNames() {
         System.out.println("dontGetAuthorNames");
         UnnecessaryDataRetrieval instance = new UnnecessaryDataRetrieval(hibernateSession.openSession());
-        List<String> result = instance.dontGetAuthorNames();
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.dontGetAuthorNames());
         assertEquals(NUMBER_OF_AUTHORS, result.size());
     }
 
@@ -101,8 +102,11 @@ public class UnnecessaryDataRetrievalTest {
     @Test
     public void testDoGetAuthorNames() {
         System.out.println("doGetAuthorNames");
-        UnnecessaryDataRetrieval instance = new UnnecessaryDataRetrieval(hibernateSession.openSession());
-        List<String> result = instance.doGetAuthorNames();
+        UnnecessaryDataRetrieval instance = new UnnecessaryDataRetrieval(hibernateSession.openReadOnlySession());
+        List<String> result = expectStatements(hibernateSession)
+                .selects(1)
+                .updates(0)
+                .during(() -> instance.doGetAuthorNames());
         assertEquals(NUMBER_OF_AUTHORS, result.size());
     }
 }
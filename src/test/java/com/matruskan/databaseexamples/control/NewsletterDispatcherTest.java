@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class NewsletterDispatcherTest {
+
+    @Test
+    public void testDispatchInBatches() {
+        System.out.println("dispatchInBatches");
+        InMemoryNewsletterTransport transport = new InMemoryNewsletterTransport();
+        RenderedNewsletter newsletter = new Newsletter().withTitle("Title").render();
+        try (NewsletterDispatcher dispatcher = new NewsletterDispatcher(transport, 2, 10, 7)) {
+            dispatcher.dispatchToRecipients(newsletter, recipients(100));
+        }
+        assertEquals(15, transport.getBatchCount());
+        assertEquals(100, transport.getDeliveryCount());
+        for (long userId = 0; userId < 100; userId++) {
+            assertEquals(1, transport.getInbox(userId).size());
+            assertSame(newsletter, transport.getInbox(userId).get(0));
+        }
+    }
+
+    @Test
+    public void testCallerWaitsWhenQueueIsFull() throws InterruptedException {
+        System.out.println("callerWaitsWhenQueueIsFull");
+        CountDownLatch blocked = new CountDownLatch(1);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        NewsletterTransport transport = (newsletter, recipients) -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                blocked.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try (NewsletterDispatcher dispatcher = new NewsletterDispatcher(transport, 1, 1, 1)) {
+            // one batch is being sent and one is queued, so the third waits
+            Thread caller = new Thread(() -> dispatcher.dispatchToRecipients(new Newsletter().render(),
+                    recipients(3)), "caller");
+            caller.start();
+            caller.join(500);
+            assertTrue(caller.isAlive());
+            blocked.countDown();
+            caller.join(10000);
+            assertFalse(caller.isAlive());
+        }
+        assertFalse(threads.contains("caller"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDispatchAfterCloseFails() {
+        System.out.println("dispatchAfterCloseFails");
+        NewsletterDispatcher dispatcher = new NewsletterDispatcher(new InMemoryNewsletterTransport(), 1, 1, 1);
+        dispatcher.close();
+        dispatcher.dispatchToRecipients(new Newsletter().render(), recipients(1));
+    }
+
+    @Test
+    public void testFailedBatchesAreCounted() {
+        System.out.println("failedBatchesAreCounted");
+        NewsletterDispatcher dispatcher = NewsletterDispatcher.inline((newsletter, recipients) -> {
+            throw new IllegalStateException("mail server is down");
+        });
+        dispatcher.dispatchToRecipients(new Newsletter().render(), recipients(250));
+        dispatcher.close();
+        assertEquals(0, dispatcher.getSentRecipients());
+        assertEquals(250, dispatcher.getFailedRecipients());
+    }
+
+    private List<Recipient> recipients(int count) {
+        List<Recipient> recipients = new ArrayList<>();
+        for (long userId = 0; userId < count; userId++) {
+            recipients.add(new Recipient(userId, "user" + userId));
+        }
+        return recipients;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class NewsletterTest {
+
+    @Test
+    public void testRender() {
+        System.out.println("render");
+        Document document = new Document();
+        document.setId(42L);
+        RenderedNewsletter rendered = new Newsletter()
+                .withTitle("New Document")
+                .addHeader("http://img", "Matruskan created a new Document")
+                .addContent("No Content Yet")
+                .addLink("Open Document", document)
+                .render();
+        assertEquals("New Document", rendered.getSubject());
+        assertEquals("Matruskan created a new Document [http://img]\n\n"
+                + "Hi alice,\n"
+                + "\nNo Content Yet\n"
+                + "\nOpen Document: /document/42",
+                rendered.renderFor(new Recipient(1, "alice")));
+        assertTrue(rendered.renderFor(new Recipient(2, null)).contains("Hi reader,"));
+    }
+
+    @Test
+    public void testRenderCache() {
+        System.out.println("renderCache");
+        NewsletterRenderCache cache = new NewsletterRenderCache(2);
+        RenderedNewsletter first = cache.get(1, () -> new Newsletter().withTitle("1"));
+        assertSame(first, cache.get(1, () -> new Newsletter().withTitle("changed")));
+        cache.get(2, () -> new Newsletter().withTitle("2"));
+        cache.get(3, () -> new Newsletter().withTitle("3"));
+        assertNotSame(first, cache.get(1, () -> new Newsletter().withTitle("1")));
+        cache.invalidate(1);
+        assertEquals("changed", cache.get(1, () -> new Newsletter().withTitle("changed")).getSubject());
+        assertEquals(1, cache.getHits());
+        assertEquals(5, cache.getMisses());
+    }
+
+    @Test
+    public void testRenderCacheFollowsDocument() {
+        System.out.println("renderCacheFollowsDocument");
+        Author author = new Author();
+        author.setName("Matruskan");
+        Document document = new Document();
+        document.setId(42L);
+        document.setTitle("First");
+        document.setAuthor(author);
+        NewsletterRenderCache cache = new NewsletterRenderCache();
+        RenderedNewsletter first = cache.get(document);
+        assertSame(first, cache.get(document));
+        document.setTitle("Second");
+        // not flushed yet
+        assertSame(first, cache.get(document));
+        document.setVersion(1);
+        assertEquals("New Document from Matruskan: Second", cache.get(document).getSubject());
+        author.setName("Someone");
+        assertEquals("New Document from Someone: Second", cache.get(document).getSubject());
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+}
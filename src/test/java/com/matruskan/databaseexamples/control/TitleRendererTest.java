@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.control;
+
+import com.matruskan.databaseexamples.dto.TitleRow;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class TitleRendererTest {
+
+    @Test
+    public void testRenderUsesCalendarYear() {
+        System.out.println("renderUsesCalendarYear");
+        TitleRenderer instance = new TitleRenderer();
+        assertEquals("Title (created by Matruskan on 2018-12-31)",
+                instance.render("Title", date(2018, 12, 31), "Matruskan"));
+        assertEquals("Other (created by Matruskan on 2018-07-14)",
+                instance.render(new TitleRow("Other", java.sql.Date.valueOf("2018-07-14"), "Matruskan")));
+    }
+
+    @Test
+    public void testRenderAll() {
+        System.out.println("renderAll");
+        List<TitleRow> rows = new ArrayList<>();
+        for (int i = 0; i < 3 * TitleRenderer.PARALLEL_THRESHOLD + 1; i++) {
+            rows.add(new TitleRow("Title " + i, date(2018, 1 + i % 12, 1 + i % 28), "Author " + i % 7));
+        }
+        List<String> result = TitleRenderer.renderAll(rows);
+        assertEquals(rows.size(), result.size());
+        TitleRenderer renderer = new TitleRenderer();
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(renderer.render(rows.get(i)), result.get(i));
+        }
+    }
+
+    private Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class LongIntHashMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        System.out.println("putAndGet");
+        LongIntHashMap instance = new LongIntHashMap();
+        instance.put(0, 10);
+        instance.put(1, 11);
+        instance.put(-1, 12);
+        instance.put(1, 13);
+        assertEquals(3, instance.size());
+        assertEquals(10, instance.get(0, -1));
+        assertEquals(13, instance.get(1, -1));
+        assertEquals(12, instance.get(-1, -1));
+        assertEquals(-1, instance.get(2, -1));
+        assertTrue(instance.containsKey(0));
+        assertFalse(instance.containsKey(2));
+    }
+
+    @Test
+    public void testBehavesLikeHashMap() {
+        System.out.println("behavesLikeHashMap");
+        Random random = new Random(42);
+        Map<Long, Integer> expected = new HashMap<>();
+        LongIntHashMap instance = new LongIntHashMap(1);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(50000) * 1024L;
+            int value = random.nextInt();
+            expected.put(key, value);
+            instance.put(key, value);
+        }
+        assertEquals(expected.size(), instance.size());
+        Map<Long, Integer> result = new HashMap<>();
+        instance.forEach(result::put);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testColumnsToMap() {
+        System.out.println("columnsToMap");
+        LongIntColumns columns = new LongIntColumns(1);
+        for (int i = 0; i < 1000; i++) {
+            columns.add(i, i * 2);
+        }
+        assertEquals(1000, columns.size());
+        assertEquals(999, columns.getLong(999));
+        assertEquals(1998, columns.getInt(999));
+        assertEquals(1000, columns.toLongArray().length);
+        LongIntHashMap map = columns.toMap();
+        assertEquals(1000, map.size());
+        assertEquals(1000, map.get(500, -1));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.dto;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class TitlePageTokenTest {
+
+    @Test
+    public void testParseRoundTrip() {
+        System.out.println("parseRoundTrip");
+        for (TitlePageToken token : new TitlePageToken[]{
+            new TitlePageToken(1, 2),
+            new TitlePageToken(-1, -2),
+            new TitlePageToken(Long.MIN_VALUE, Long.MAX_VALUE)}) {
+            assertEquals(token, TitlePageToken.parse(token.toString()));
+        }
+    }
+
+    @Test
+    public void testParseRejectsInvalidTokens() {
+        System.out.println("parseRejectsInvalidTokens");
+        for (String token : new String[]{"", "1", "1_", "_2", "1_2_3", "a_2"}) {
+            try {
+                TitlePageToken.parse(token);
+                fail("Parsed " + token);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
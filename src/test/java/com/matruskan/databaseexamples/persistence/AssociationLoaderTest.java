@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import com.matruskan.databaseexamples.entities.User;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static com.matruskan.databaseexamples.persistence.ExpectedStatements.expectStatements;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class AssociationLoaderTest {
+
+    private static final String TEST_DB = "AssociationLoaderTest";
+    private static final int NUMBER_OF_AUTHORS = 10;
+    private static final int NUMBER_OF_USERS = 50;
+    private static final CriteriaFilter<Author> TWINS = (author, builder) -> builder.equal(author.get("name"), "Twin");
+    private static HSQLDBServer hsqldbServer;
+    HibernateSession hibernateSession;
+
+    public AssociationLoaderTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        hsqldbServer = new HSQLDBServer(TEST_DB);
+        HibernateSession hibernateSession = new HibernateSession(TEST_DB);
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_AUTHORS; i++) {
+            Author author = new Author();
+            author.setName("Matruskan " + i);
+            authors.add(author);
+        }
+        new BulkLoader(hibernateSession).load(authors);
+        Session session = hibernateSession.openTransation();
+        for (int i = 0; i < NUMBER_OF_USERS; i++) {
+            User user = new User();
+            // user i favorites the first (i % NUMBER_OF_AUTHORS) + 1 authors
+            user.setFavoriteAuthors(new HashSet<>(authors.subList(0, i % NUMBER_OF_AUTHORS + 1)));
+            session.save(user);
+        }
+        hibernateSession.commit();
+        // two Authors that are equal by name, with different Documents
+        new BulkLoader(hibernateSession).load(Arrays.asList(createTwin(1), createTwin(2)));
+        hibernateSession.close();
+    }
+
+    private static Author createTwin(int documents) {
+        Author author = new Author();
+        author.setName("Twin");
+        Set<Document> twinDocuments = new HashSet<>();
+        for (int i = 0; i < documents; i++) {
+            Document document = new Document();
+            document.setAuthor(author);
+            document.setTitle("Twin " + documents + " Document " + i);
+            document.setDate(new Date());
+            twinDocuments.add(document);
+        }
+        author.setDocuments(twinDocuments);
+        return author;
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        hsqldbServer.stop();
+        hsqldbServer.delete();
+    }
+
+    @Before
+    public void setUp() {
+        hibernateSession = new HibernateSession(TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        hibernateSession.close();
+    }
+
+    /**
+     * Test of loadFavoriteAuthors method, of class AssociationLoader.
+     */
+    @Test
+    public void testLoadFavoriteAuthorsInBatches() {
+        System.out.println("loadFavoriteAuthorsInBatches");
+        try (Session session = hibernateSession.openSession()) {
+            AssociationLoader instance = new AssociationLoader(session);
+            List<User> result = expectStatements(hibernateSession)
+                    .selects(1 + NUMBER_OF_USERS / 25)
+                    .during(() -> instance.loadFavoriteAuthors(CriteriaFilter.all(), CollectionFetchMode.BATCH, 25));
+            assertFavoriteAuthors(result);
+            // the session sees the collections as loaded, not as changed
+            session.beginTransaction();
+            expectStatements(hibernateSession)
+                    .inserts(0)
+                    .updates(0)
+                    .deletes(0)
+                    .during(session::flush);
+            session.getTransaction().rollback();
+        }
+    }
+
+    /**
+     * Test of loadFavoriteAuthors method, of class AssociationLoader.
+     */
+    @Test
+    public void testLoadFavoriteAuthorsWithSubselect() {
+        System.out.println("loadFavoriteAuthorsWithSubselect");
+        try (Session session = hibernateSession.openSession()) {
+            AssociationLoader instance = new AssociationLoader(session);
+            List<User> result = expectStatements(hibernateSession)
+                    .selects(2)
+                    .during(() -> instance.loadFavoriteAuthors(CriteriaFilter.all(), CollectionFetchMode.SUBSELECT, 1));
+            assertFavoriteAuthors(result);
+        }
+    }
+
+    /**
+     * Test of loadDocuments method, of class AssociationLoader.
+     */
+    @Test
+    public void testLoadDocumentsInBatches() {
+        System.out.println("loadDocumentsInBatches");
+        try (Session session = hibernateSession.openSession()) {
+            AssociationLoader instance = new AssociationLoader(session);
+            List<Author> result = expectStatements(hibernateSession)
+                    .selects(3)
+                    .during(() -> instance.loadDocuments(TWINS, CollectionFetchMode.BATCH, 1));
+            assertTwinDocuments(result);
+        }
+    }
+
+    /**
+     * Test of loadDocuments method, of class AssociationLoader.
+     */
+    @Test
+    public void testLoadDocumentsWithSubselect() {
+        System.out.println("loadDocumentsWithSubselect");
+        try (Session session = hibernateSession.openSession()) {
+            AssociationLoader instance = new AssociationLoader(session);
+            List<Author> result = expectStatements(hibernateSession)
+                    .selects(2)
+                    .during(() -> instance.loadDocuments(TWINS, CollectionFetchMode.SUBSELECT, 1));
+            assertTwinDocuments(result);
+        }
+    }
+
+    private void assertTwinDocuments(List<Author> result) {
+        assertEquals(2, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            Set<Document> documents = result.get(i).getDocuments();
+            assertTrue(Hibernate.isInitialized(documents));
+            int expected = expectStatements(hibernateSession)
+                    .selects(0)
+                    .during(() -> documents.size());
+            assertEquals(i + 1, expected);
+            for (Document document : documents) {
+                assertTrue(document.getTitle().startsWith("Twin " + (i + 1) + " "));
+            }
+        }
+    }
+
+    private void assertFavoriteAuthors(List<User> result) {
+        assertEquals(NUMBER_OF_USERS, result.size());
+        int favorites = expectStatements(hibernateSession)
+                .selects(0)
+                .during(() -> {
+                    int count = 0;
+                    for (User user : result) {
+                        assertTrue(Hibernate.isInitialized(user.getFavoriteAuthors()));
+                        count += user.getFavoriteAuthors().size();
+                    }
+                    return count;
+                });
+        int expected = 0;
+        for (int i = 0; i < NUMBER_OF_USERS; i++) {
+            expected += i % NUMBER_OF_AUTHORS + 1;
+        }
+        assertEquals(expected, favorites);
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class AuthorDocumentsListenerTest {
+
+    private static final String TEST_DB = "AuthorDocumentsListenerTest";
+    private static final int THREADS = 8;
+    private static final int TRANSACTIONS_PER_THREAD = 20;
+    private static final int DOCUMENTS_PER_TRANSACTION = 5;
+    private static HSQLDBServer hsqldbServer;
+    HibernateSession hibernateSession;
+    Author author;
+    Author otherAuthor;
+
+    @BeforeClass
+    public static void setUpClass() {
+        hsqldbServer = new HSQLDBServer(TEST_DB);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        hsqldbServer.stop();
+        hsqldbServer.delete();
+    }
+
+    @Before
+    public void setUp() {
+        hibernateSession = new HibernateSession(TEST_DB);
+        author = new Author();
+        author.setName("Matruskan");
+        otherAuthor = new Author();
+        otherAuthor.setName("Other");
+        new BulkLoader(hibernateSession).load(Arrays.asList(author, otherAuthor));
+    }
+
+    @After
+    public void tearDown() {
+        hibernateSession.closeSession();
+        hibernateSession.close();
+    }
+
+    @Test
+    public void testConcurrentInserts() throws Exception {
+        System.out.println("concurrentInserts");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Random random = new Random(thread);
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                        insertDocuments(random);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertAuthorDocumentsMatch(author);
+        try (Session session = hibernateSession.openSession()) {
+            assertEquals(THREADS * TRANSACTIONS_PER_THREAD * DOCUMENTS_PER_TRANSACTION,
+                    new AuthorDocuments(session).count(author));
+        }
+    }
+
+    @Test
+    public void testDeleteLatestDocument() {
+        System.out.println("deleteLatestDocument");
+        Long first = saveDocument(author, new Date(1000));
+        Long latest = saveDocument(author, new Date(2000));
+        assertEquals(latest, latestDocumentId(author));
+
+        Session session = hibernateSession.openTransation();
+        session.delete(session.get(Document.class, latest));
+        hibernateSession.commit();
+        assertEquals(first, latestDocumentId(author));
+
+        session = hibernateSession.openTransation();
+        session.delete(session.get(Document.class, first));
+        hibernateSession.commit();
+        assertNull(latestDocumentId(author));
+    }
+
+    @Test
+    public void testReassignAndRedateDocuments() {
+        System.out.println("reassignAndRedateDocuments");
+        Long older = saveDocument(author, new Date(1000));
+        Long newer = saveDocument(author, new Date(2000));
+        Long others = saveDocument(otherAuthor, new Date(1500));
+
+        Session session = hibernateSession.openTransation();
+        session.get(Document.class, newer).setAuthor(session.get(Author.class, otherAuthor.getId()));
+        hibernateSession.commit();
+        assertEquals(older, latestDocumentId(author));
+        assertEquals(newer, latestDocumentId(otherAuthor));
+
+        session = hibernateSession.openTransation();
+        session.get(Document.class, newer).setDate(new Date(0));
+        hibernateSession.commit();
+        assertEquals(others, latestDocumentId(otherAuthor));
+
+        session = hibernateSession.openTransation();
+        session.get(Document.class, older).setDate(new Date(3000));
+        hibernateSession.commit();
+        assertEquals(older, latestDocumentId(author));
+        assertAuthorDocumentsMatch(author);
+        assertAuthorDocumentsMatch(otherAuthor);
+    }
+
+    @Test
+    public void testCommitUpdatesAuthorsThroughSession() {
+        System.out.println("commitUpdatesAuthorsThroughSession");
+        Long older = saveDocument(author, new Date(1000));
+        String countQuery = "select a.documentCount from Author a where a.id = :id";
+        try (Session session = hibernateSession.openSession()) {
+            assertEquals(Long.valueOf(1), session.createQuery(countQuery, Long.class)
+                    .setParameter("id", author.getId())
+                    .setCacheable(true)
+                    .getSingleResult());
+        }
+        Session session = hibernateSession.openTransation();
+        Document document = new Document();
+        document.setAuthor(session.get(Author.class, author.getId()));
+        document.setTitle("Dated 2000");
+        document.setDate(new Date(2000));
+        session.save(document);
+        document = new Document();
+        document.setAuthor(session.get(Author.class, author.getId()));
+        document.setTitle("Dated 2500");
+        document.setDate(new Date(2500));
+        session.save(document);
+        session.delete(session.get(Document.class, older));
+        document = new Document();
+        document.setAuthor(session.get(Author.class, otherAuthor.getId()));
+        document.setTitle("Dated 3000");
+        document.setDate(new Date(3000));
+        session.save(document);
+        session.flush();
+        StatementCounter counter = hibernateSession.getStatementCounter();
+        counter.reset();
+        hibernateSession.commit();
+        // one UPDATE per Author
+        assertEquals(2, counter.getUpdateCount());
+        try (Session check = hibernateSession.openSession()) {
+            // the cached count of the Author was invalidated
+            assertEquals(Long.valueOf(2), check.createQuery(countQuery, Long.class)
+                    .setParameter("id", author.getId())
+                    .setCacheable(true)
+                    .getSingleResult());
+        }
+        assertAuthorDocumentsMatch(author);
+        assertAuthorDocumentsMatch(otherAuthor);
+    }
+
+    private void insertDocuments(Random random) {
+        try (Session session = hibernateSession.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            Author managedAuthor = session.get(Author.class, author.getId());
+            for (int i = 0; i < DOCUMENTS_PER_TRANSACTION; i++) {
+                Document document = new Document();
+                document.setAuthor(managedAuthor);
+                document.setTitle("Concurrent " + random.nextInt());
+                document.setDate(new Date(random.nextInt(1000) * 1000L));
+                session.save(document);
+            }
+            transaction.commit();
+        }
+    }
+
+    private Long saveDocument(Author owner, Date date) {
+        Session session = hibernateSession.openTransation();
+        Document document = new Document();
+        document.setAuthor(session.get(Author.class, owner.getId()));
+        document.setTitle("Dated " + date.getTime());
+        document.setDate(date);
+        session.save(document);
+        hibernateSession.commit();
+        return document.getId();
+    }
+
+    private Long latestDocumentId(Author owner) {
+        try (Session session = hibernateSession.openSession()) {
+            return new AuthorDocuments(session).latestDocumentId(owner);
+        }
+    }
+
+    private void assertAuthorDocumentsMatch(Author owner) {
+        try (Session session = hibernateSession.openSession()) {
+            List<Long> newest = session.createQuery("select d.id from Document d"
+                    + " where d.author.id = :id order by d.date desc, d.id desc", Long.class)
+                    .setParameter("id", owner.getId())
+                    .setMaxResults(1)
+                    .getResultList();
+            assertEquals(newest.get(0), new AuthorDocuments(session).latestDocumentId(owner));
+            long count = session.createQuery("select count(d) from Document d"
+                    + " where d.author.id = :id", Long.class)
+                    .setParameter("id", owner.getId())
+                    .uniqueResult();
+            assertEquals(count, new AuthorDocuments(session).count(owner));
+        }
+    }
+}
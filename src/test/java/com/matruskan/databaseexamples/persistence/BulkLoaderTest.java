@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class BulkLoaderTest {
+
+    private static final String TEST_DB = "BulkLoaderTest";
+    private static final int NUMBER_OF_AUTHORS = 100;
+    private static final int NUMBER_OF_DOCUMENTS = 200;
+    private static HSQLDBServer hsqldbServer;
+    HibernateSession hibernateSession;
+
+    public BulkLoaderTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        hsqldbServer = new HSQLDBServer(TEST_DB);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        hsqldbServer.stop();
+        hsqldbServer.delete();
+    }
+
+    @Before
+    public void setUp() {
+        hibernateSession = new HibernateSession(TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        hibernateSession.close();
+    }
+
+    /**
+     * Test of load method, of class BulkLoader.
+     */
+    @Test
+    public void testLoad() {
+        System.out.println("load");
+        BulkLoader instance = new BulkLoader(hibernateSession, 100);
+        BulkLoadReport report = instance.load(generateAuthors());
+        System.out.println(report);
+        assertEquals(NUMBER_OF_AUTHORS, report.getAuthors());
+        assertEquals(NUMBER_OF_AUTHORS * NUMBER_OF_DOCUMENTS, report.getDocuments());
+        try (Session session = hibernateSession.openSession()) {
+            Long documents = session
+                    .createQuery("select count(d) from Document d where d.author.name = :name", Long.class)
+                    .setParameter("name", "BulkLoader 0")
+                    .uniqueResult();
+            assertEquals(NUMBER_OF_DOCUMENTS, documents.longValue());
+        }
+    }
+
+    private static Iterator<Author> generateAuthors() {
+        return new Iterator<Author>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < NUMBER_OF_AUTHORS;
+            }
+
+            @Override
+            public Author next() {
+                Author author = new Author();
+                author.setName("BulkLoader " + next++);
+                Set<Document> documents = new HashSet<>();
+                for (int i = 0; i < NUMBER_OF_DOCUMENTS; i++) {
+                    Document document = new Document();
+                    document.setTitle("Bulk Document " + i);
+                    document.setContent("No Content Yet");
+                    document.setDate(new Date());
+                    documents.add(document);
+                }
+                author.setDocuments(documents);
+                return author;
+            }
+        };
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import com.matruskan.databaseexamples.entities.Author;
+import com.matruskan.databaseexamples.entities.Document;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ */
+public class DocumentContentStoreTest {
+
+    private static final String TEST_DB = "DocumentContentStoreTest";
+    private static final int LARGE_CONTENT_LENGTH = 4 * 1024 * 1024;
+    private static HSQLDBServer hsqldbServer;
+    HibernateSession hibernateSession;
+    Author author;
+
+    @BeforeClass
+    public static void setUpClass() {
+        hsqldbServer = new HSQLDBServer(TEST_DB);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        hsqldbServer.stop();
+        hsqldbServer.delete();
+    }
+
+    @Before
+    public void setUp() {
+        hibernateSession = new HibernateSession(TEST_DB);
+        author = new Author();
+        author.setName("Matruskan");
+        Set<Document> documents = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Document document = new Document();
+            document.setTitle("DocumentContentStore " + i);
+            document.setContent(i == 0 ? null : "Content " + i);
+            document.setDate(new Date());
+            documents.add(document);
+        }
+        author.setDocuments(documents);
+        new BulkLoader(hibernateSession).load(Arrays.asList(author));
+    }
+
+    @After
+    public void tearDown() {
+        hibernateSession.closeSession();
+        hibernateSession.close();
+    }
+
+    @Test
+    public void testWriteAndExportLargeContent() {
+        System.out.println("writeAndExportLargeContent");
+        long documentId = author.getDocuments().iterator().next().getId();
+        Session session = hibernateSession.openTransation();
+        DocumentContentStore instance = new DocumentContentStore(session);
+        assertTrue(instance.writeContent(documentId, new RepeatingReader(LARGE_CONTENT_LENGTH)));
+        hibernateSession.commit();
+
+        String expected = readFully(new RepeatingReader(LARGE_CONTENT_LENGTH));
+        try (Session readSession = hibernateSession.openSession()) {
+            DocumentContentStore store = new DocumentContentStore(readSession);
+            StringWriter exported = new StringWriter();
+            assertEquals(LARGE_CONTENT_LENGTH, store.exportContent(documentId, exported));
+            assertEquals(expected, exported.toString());
+            assertEquals(expected.hashCode(), store.hashContent(documentId));
+            Document document = readSession.get(Document.class, documentId);
+            assertEquals(Integer.valueOf(expected.hashCode()), document.getContentDigest());
+            assertEquals(expected, document.getContent());
+        }
+    }
+
+    @Test
+    public void testHashAllContents() {
+        System.out.println("hashAllContents");
+        Map<Long, Integer> expected = new HashMap<>();
+        for (Document document : author.getDocuments()) {
+            expected.put(document.getId(), Objects.hashCode(document.getContent()));
+        }
+        try (Session session = hibernateSession.openSession()) {
+            Map<Long, Integer> result = new HashMap<>();
+            new DocumentContentStore(session).hashAllContents(100, result::put);
+            assertTrue(result.entrySet().containsAll(expected.entrySet()));
+        }
+    }
+
+    @Test
+    public void testMissingDocument() {
+        System.out.println("missingDocument");
+        try (Session session = hibernateSession.openSession()) {
+            DocumentContentStore instance = new DocumentContentStore(session);
+            assertEquals(-1, instance.exportContent(-1, new StringWriter()));
+            assertEquals(0, instance.hashContent(-1));
+        }
+    }
+
+    @Test
+    public void testWriteContentInvalidatesCachedQueries() {
+        System.out.println("writeContentInvalidatesCachedQueries");
+        long documentId = author.getDocuments().iterator().next().getId();
+        String query = "select d.contentDigest from Document d where d.id = :id";
+        try (Session session = hibernateSession.openSession()) {
+            session.createQuery(query, Integer.class)
+                    .setParameter("id", documentId)
+                    .setCacheable(true)
+                    .getSingleResult();
+        }
+        Session session = hibernateSession.openTransation();
+        ExpectedStatements.expectStatements(hibernateSession)
+                .selects(0)
+                .updates(1)
+                .during(() -> assertTrue(new DocumentContentStore(session).writeContent(documentId, new StringReader("Rewritten"))));
+        hibernateSession.commit();
+        try (Session check = hibernateSession.openSession()) {
+            assertEquals(Integer.valueOf("Rewritten".hashCode()), check.createQuery(query, Integer.class)
+                    .setParameter("id", documentId)
+                    .setCacheable(true)
+                    .getSingleResult());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteNullContent() {
+        System.out.println("writeNullContent");
+        long documentId = author.getDocuments().iterator().next().getId();
+        try {
+            new DocumentContentStore(hibernateSession.openTransation()).writeContent(documentId, null);
+        } finally {
+            hibernateSession.rollback();
+        }
+    }
+
+    @Test
+    public void testMigrateContentColumn() {
+        System.out.println("migrateContentColumn");
+        Session session = hibernateSession.openTransation();
+        DocumentContentStore instance = new DocumentContentStore(session);
+        assertFalse(instance.migrateContentColumn());
+        session.createNativeQuery("update Document set content = null where length(content) > 255").executeUpdate();
+        session.createNativeQuery("alter table Document alter column content varchar(255)").executeUpdate();
+        assertTrue(instance.migrateContentColumn());
+        assertFalse(instance.migrateContentColumn());
+        hibernateSession.commit();
+    }
+
+    @Test
+    public void testHashingReaderHashesSkippedCharacters() throws IOException {
+        System.out.println("hashingReaderHashesSkippedCharacters");
+        String content = "Skipped, then read";
+        DocumentContentStore.HashingReader reader = new DocumentContentStore.HashingReader(new StringReader(content));
+        assertFalse(reader.markSupported());
+        assertEquals(9, reader.skip(9));
+        assertEquals(content.substring(9), readFully(reader));
+        assertEquals(content.hashCode(), reader.getHash());
+        assertEquals(0, reader.skip(10));
+    }
+
+    private static String readFully(Reader reader) {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[8192];
+        try {
+            for (int read = reader.read(buffer); read != -1; read = reader.read(buffer)) {
+                builder.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Generates {@code length} characters without holding them in memory.
+     */
+    private static class RepeatingReader extends Reader {
+
+        private static final String PATTERN = "The quick brown fox jumps over the lazy dog. ";
+        private long remaining;
+        private int position;
+
+        RepeatingReader(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int count = (int) Math.min(length, remaining);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = PATTERN.charAt(position);
+                position = (position + 1) % PATTERN.length();
+            }
+            remaining -= count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
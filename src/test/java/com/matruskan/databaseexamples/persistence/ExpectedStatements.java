@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 matruskan
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.matruskan.databaseexamples.persistence;
+
+import java.util.function.Supplier;
+import static org.junit.Assert.*;
+
+/**
+ * Asserts how many SQL statements a block of code issues.
+ *
+ * <pre>
+ * List&lt;String&gt; titles = expectStatements(hibernateSession)
+ *         .selects(1)
+ *         .updates(0)
+ *         .during(() -&gt; instance.doListTitles());
+ * </pre>
+ */
+public class ExpectedStatements {
+
+    private final StatementCounter counter;
+    private long minSelects = 0;
+    private long maxSelects = Long.MAX_VALUE;
+    private long maxInserts = Long.MAX_VALUE;
+    private long maxUpdates = Long.MAX_VALUE;
+    private long maxDeletes = Long.MAX_VALUE;
+
+    private ExpectedStatements(StatementCounter counter) {
+        this.counter = counter;
+    }
+
+    public static ExpectedStatements expectStatements(HibernateSession hibernateSession) {
+        return new ExpectedStatements(hibernateSession.getStatementCounter());
+    }
+
+    public ExpectedStatements selects(long selects) {
+        minSelects = selects;
+        maxSelects = selects;
+        return this;
+    }
+
+    public ExpectedStatements atMostSelects(long selects) {
+        minSelects = 0;
+        maxSelects = selects;
+        return this;
+    }
+
+    public ExpectedStatements inserts(long inserts) {
+        maxInserts = inserts;
+        return this;
+    }
+
+    public ExpectedStatements updates(long updates) {
+        maxUpdates = updates;
+        return this;
+    }
+
+    public ExpectedStatements deletes(long deletes) {
+        maxDeletes = deletes;
+        return this;
+    }
+
+    public void during(Runnable block) {
+        during(() -> {
+            block.run();
+            return null;
+        });
+    }
+
+    public <T> T during(Supplier<T> block) {
+        counter.reset();
+        T result = block.get();
+        System.out.println(counter);
+        long selects = counter.getSelectCount();
+        assertTrue("Expected between " + minSelects + " and " + maxSelects + " selects but " + selects + " were issued",
+                selects >= minSelects && selects <= maxSelects);
+        assertAtMost("inserts", maxInserts, counter.getInsertCount());
+        assertAtMost("updates", maxUpdates, counter.getUpdateCount());
+        assertAtMost("deletes", maxDeletes, counter.getDeleteCount());
+        return result;
+    }
+
+    private static void assertAtMost(String statementType, long expected, long actual) {
+        assertTrue("Expected at most " + expected + " " + statementType + " but " + actual + " were issued",
+                actual <= expected);
+    }
+}
@@ -25,8 +25,19 @@ package com.matruskan.databaseexamples.persistence;
 
 import com.matruskan.databaseexamples.entities.Author;
 import com.matruskan.databaseexamples.entities.Document;
+import java.io.File;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.stat.CacheRegionStatistics;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -144,4 +155,225 @@ public class HibernateSessionTest {
         assertNull(result);
     }
 
+    /**
+     * Test of getPoolStatistics method, of class HibernateSession.
+     */
+    @Test
+    public void testPoolServesConcurrentSessions() {
+        System.out.println("poolServesConcurrentSessions");
+        int numberOfSessions = 4;
+        List<Session> sessions = new ArrayList<>();
+        try {
+            for (int i = 0; i < numberOfSessions; i++) {
+                Session session = instance.openSession();
+                session.beginTransaction();
+                sessions.add(session);
+            }
+            PoolStatistics statistics = instance.getPoolStatistics();
+            System.out.println(statistics);
+            assertEquals(numberOfSessions, statistics.getActiveConnections());
+            assertTrue(statistics.getAcquisitionCount() >= numberOfSessions);
+        } finally {
+            for (Session session : sessions) {
+                session.getTransaction().rollback();
+                session.close();
+            }
+        }
+        assertEquals(0, instance.getPoolStatistics().getActiveConnections());
+    }
+
+    /**
+     * Test of the second-level cache configured by HibernateSession.
+     */
+    @Test
+    public void testSecondLevelCache() {
+        System.out.println("secondLevelCache");
+        Author author = new Author();
+        author.setName("Cached Matruskan");
+        Set<Document> documents = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Document document = new Document();
+            document.setTitle("Cached Document " + i);
+            document.setDate(new Date());
+            documents.add(document);
+        }
+        author.setDocuments(documents);
+        new BulkLoader(instance).load(Arrays.asList(author));
+        try (Session session = instance.openSession()) {
+            session.get(Author.class, author.getId()).getDocuments().size();
+        }
+        CacheRegionStatistics authorStatistics = instance.getStatistics().getDomainDataRegionStatistics("author");
+        CacheRegionStatistics documentsStatistics = instance.getStatistics().getDomainDataRegionStatistics("author.documents");
+        long authorHits = authorStatistics.getHitCount();
+        long documentsHits = documentsStatistics.getHitCount();
+        long statements = instance.getStatistics().getPrepareStatementCount();
+        try (Session session = instance.openSession()) {
+            assertEquals(10, session.get(Author.class, author.getId()).getDocuments().size());
+        }
+        assertEquals(authorHits + 1, authorStatistics.getHitCount());
+        assertEquals(documentsHits + 1, documentsStatistics.getHitCount());
+        assertEquals(statements, instance.getStatistics().getPrepareStatementCount());
+    }
+
+    /**
+     * Test of openReadOnlyTransaction method, of class HibernateSession.
+     */
+    @Test
+    public void testReadOnlyTransactionDoesNotWrite() {
+        System.out.println("readOnlyTransactionDoesNotWrite");
+        Author author = new Author();
+        author.setName("Read-only Matruskan");
+        new BulkLoader(instance).load(Arrays.asList(author));
+        Session session = instance.openReadOnlyTransaction();
+        Author loaded = session.get(Author.class, author.getId());
+        assertTrue(session.isReadOnly(loaded));
+        loaded.setName("Changed");
+        ExpectedStatements.expectStatements(instance)
+                .selects(0)
+                .updates(0)
+                .during(() -> instance.commit());
+        try (Session check = instance.openReadOnlySession()) {
+            assertEquals("Read-only Matruskan", check.get(Author.class, author.getId()).getName());
+        }
+    }
+
+    /**
+     * Test of openStatelessSession method, of class HibernateSession.
+     */
+    @Test
+    public void testStatelessSession() {
+        System.out.println("statelessSession");
+        Author author = new Author();
+        author.setName("Stateless Matruskan");
+        Set<Document> documents = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Document document = new Document();
+            document.setTitle("Stateless Document " + i);
+            document.setDate(new Date());
+            documents.add(document);
+        }
+        author.setDocuments(documents);
+        new BulkLoader(instance).load(Arrays.asList(author));
+        try (StatelessSession session = instance.openStatelessSession()) {
+            List<Document> loaded = session
+                    .createQuery("select d from Document d join fetch d.author a where a.id = :id", Document.class)
+                    .setParameter("id", author.getId())
+                    .getResultList();
+            assertEquals(10, loaded.size());
+            for (Document document : loaded) {
+                assertEquals("Stateless Matruskan", document.getAuthor().getName());
+            }
+        }
+    }
+
+    /**
+     * Test of the indexes declared on the entities.
+     */
+    @Test
+    public void testSchemaHasDeclaredIndexes() {
+        System.out.println("schemaHasDeclaredIndexes");
+        Set<String> indexes = new HashSet<>();
+        try (Session session = instance.openSession()) {
+            session.doWork(connection -> {
+                for (String table : Arrays.asList("DOCUMENT", "USER_FAVORITEAUTHORS")) {
+                    try (ResultSet indexInfo = connection.getMetaData().getIndexInfo(null, null, table, false, false)) {
+                        while (indexInfo.next()) {
+                            indexes.add(indexInfo.getString("INDEX_NAME"));
+                        }
+                    }
+                }
+            });
+        }
+        assertTrue(indexes.toString(), indexes.containsAll(Arrays.asList(
+                "DOCUMENT_AUTHOR_DATE", "DOCUMENT_DATE", "USER_FAVORITE_AUTHORS_AUTHOR")));
+    }
+
+    /**
+     * Test of the lazily fetched Document content.
+     */
+    @Test
+    public void testDocumentContentIsLazy() {
+        System.out.println("documentContentIsLazy");
+        Author author = new Author();
+        author.setName("Lazy Matruskan");
+        Document document = new Document();
+        document.setTitle("Lazy Document");
+        document.setContent("Lazy Content");
+        document.setDate(new Date());
+        author.setDocuments(new HashSet<>(Arrays.asList(document)));
+        new BulkLoader(instance).load(Arrays.asList(author));
+        try (Session session = instance.openSession()) {
+            session.setCacheMode(CacheMode.IGNORE);
+            Document loaded = session.get(Document.class, document.getId());
+            assertFalse(Hibernate.isPropertyInitialized(loaded, "content"));
+            assertEquals("Lazy Document", loaded.getTitle());
+            String content = ExpectedStatements.expectStatements(instance)
+                    .selects(1)
+                    .during(() -> loaded.getContent());
+            assertEquals("Lazy Content", content);
+        }
+    }
+
+    /**
+     * Test of the in-process database modes.
+     */
+    @Test
+    public void testInProcessDatabases() {
+        System.out.println("inProcessDatabases");
+        String memoryDb = TEST_DB + "Memory";
+        try {
+            assertNotNull(saveAuthor(memoryDb, DatabaseMode.MEMORY, "In Memory"));
+            assertEquals(1, countAuthors(memoryDb, DatabaseMode.MEMORY));
+        } finally {
+            DatabaseMode.MEMORY.shutdown(memoryDb);
+        }
+        assertEquals(0, countAuthors(memoryDb, DatabaseMode.MEMORY));
+        DatabaseMode.MEMORY.shutdown(memoryDb);
+
+        String fileDb = TEST_DB + "File";
+        try {
+            saveAuthor(fileDb, DatabaseMode.FILE, "In File");
+            DatabaseMode.FILE.shutdown(fileDb);
+            assertEquals(1, countAuthors(fileDb, DatabaseMode.FILE));
+        } finally {
+            DatabaseMode.FILE.shutdown(fileDb);
+            HSQLDBServer.deleteFiles(fileDb);
+        }
+    }
+
+    /**
+     * Test of shutdown method, of class DatabaseMode, for databases that
+     * were never opened.
+     */
+    @Test
+    public void testShutdownMissingDatabase() {
+        System.out.println("shutdownMissingDatabase");
+        String missingDb = TEST_DB + "Missing";
+        DatabaseMode.MEMORY.shutdown(missingDb);
+        DatabaseMode.FILE.shutdown(missingDb);
+        assertFalse(new File("db/" + missingDb + ".properties").exists());
+        assertFalse(new File("db/" + missingDb + ".script").exists());
+    }
+
+    private Long saveAuthor(String databaseName, DatabaseMode mode, String name) {
+        HibernateSession hibernateSession = new HibernateSession(databaseName, mode);
+        try {
+            Author author = new Author();
+            author.setName(name);
+            hibernateSession.openTransation().save(author);
+            hibernateSession.commit();
+            return author.getId();
+        } finally {
+            hibernateSession.close();
+        }
+    }
+
+    private long countAuthors(String databaseName, DatabaseMode mode) {
+        HibernateSession hibernateSession = new HibernateSession(databaseName, mode);
+        try (Session session = hibernateSession.openSession()) {
+            return session.createQuery("select count(a) from Author a", Long.class).uniqueResult();
+        } finally {
+            hibernateSession.close();
+        }
+    }
 }